@@ -0,0 +1,165 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 {@code String.format} 경로와 {@code BadgeRenderer} 의 처리량과 할당량을 비교한다.
+ * {@code precompiled*} 는 {@code String.format} 과 같은 원래 템플릿({@code BadgeRenderer.original()})을 렌더링하고,
+ * {@code minified*} 는 실제로 사용하는 줄인 템플릿({@code BadgeRenderer.getDefault()})을 렌더링한다.
+ * <p>
+ * 실행: {@code ./gradlew jmh} (gc 프로파일러가 켜져 있어 gc.alloc.rate.norm 으로 렌더링당 할당 바이트를 볼 수 있다.)
+ * <p>
+ * JMH 는 기본 패키지의 벤치마크를 허용하지 않고, 뱃지 코드는 기본 패키지에 있어서 import 할 수 없다.
+ * 그래서 static final {@link MethodHandle} 로 호출하며, JIT 이 상수로 인라인하므로 측정에 주는 영향은 없다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BadgeRenderBenchmark {
+
+    private static final Object RENDERER;
+    private static final Object MINIFIED;
+    private static final MethodHandle FORMAT;
+    private static final MethodHandle RENDER_LONG;
+    private static final MethodHandle RENDER_STRING;
+    private static final MethodHandle RENDER_CHANNEL;
+    private static final int MAX_RENDERED_LENGTH;
+    private static final int MAX_LONG_DIGITS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> template = Class.forName("BadgeTemplate");
+            Class<?> renderer = Class.forName("BadgeRenderer");
+
+            RENDERER = renderer.getMethod("original").invoke(null);
+            MINIFIED = renderer.getMethod("getDefault").invoke(null);
+            MAX_RENDERED_LENGTH = (int) renderer.getMethod("maxRenderedLength").invoke(RENDERER);
+            MAX_LONG_DIGITS = renderer.getField("MAX_LONG_DIGITS").getInt(null);
+
+            FORMAT = lookup.findStatic(template, "format", MethodType.methodType(String.class,
+                    String.class, String.class, String.class, String.class));
+            RENDER_LONG = lookup.findVirtual(renderer, "render", MethodType.methodType(void.class,
+                            OutputStream.class, byte[].class, long.class, long.class, long.class, long.class))
+                    .asType(MethodType.methodType(void.class,
+                            Object.class, OutputStream.class, byte[].class, long.class, long.class, long.class, long.class));
+            RENDER_STRING = lookup.findVirtual(renderer, "render", MethodType.methodType(void.class,
+                            OutputStream.class, String.class, String.class, String.class, String.class))
+                    .asType(MethodType.methodType(void.class,
+                            Object.class, OutputStream.class, String.class, String.class, String.class, String.class));
+            RENDER_CHANNEL = lookup.findVirtual(renderer, "render", MethodType.methodType(void.class,
+                            WritableByteChannel.class, ByteBuffer.class, long.class, long.class, long.class, long.class))
+                    .asType(MethodType.methodType(void.class,
+                            Object.class, WritableByteChannel.class, ByteBuffer.class, long.class, long.class, long.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private long level;
+    private long score;
+    private long solved;
+    private long rank;
+    private CountingSink sink;
+    private ByteBuffer buffer;
+    private byte[] digits;
+
+    @Setup
+    public void setUp() {
+        level = 2;
+        score = 1234;
+        solved = 56;
+        rank = 7890;
+        sink = new CountingSink();
+        buffer = ByteBuffer.allocate(MAX_RENDERED_LENGTH);
+        digits = new byte[MAX_LONG_DIGITS];
+    }
+
+    /**
+     * 기존 경로: 매번 포맷 문자열을 해석하고 String 을 만든 뒤 UTF-8 로 인코딩해서 쓴다.
+     */
+    @Benchmark
+    public long stringFormat() throws Throwable {
+        String svgContent = (String) FORMAT.invokeExact(
+                String.valueOf(level), String.valueOf(score), String.valueOf(solved), String.valueOf(rank));
+        sink.write(svgContent.getBytes(StandardCharsets.UTF_8));
+        return sink.count;
+    }
+
+    @Benchmark
+    public long precompiledLong() throws Throwable {
+        RENDER_LONG.invokeExact(RENDERER, (OutputStream) sink, digits, level, score, solved, rank);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long precompiledString() throws Throwable {
+        RENDER_STRING.invokeExact(RENDERER, (OutputStream) sink,
+                String.valueOf(level), String.valueOf(score), String.valueOf(solved), String.valueOf(rank));
+        return sink.count;
+    }
+
+    @Benchmark
+    public long precompiledChannel() throws Throwable {
+        RENDER_CHANNEL.invokeExact(RENDERER, (WritableByteChannel) sink, buffer, level, score, solved, rank);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long minifiedLong() throws Throwable {
+        RENDER_LONG.invokeExact(MINIFIED, (OutputStream) sink, digits, level, score, solved, rank);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long minifiedChannel() throws Throwable {
+        RENDER_CHANNEL.invokeExact(MINIFIED, (WritableByteChannel) sink, buffer, level, score, solved, rank);
+        return sink.count;
+    }
+
+    /**
+     * 쓴 바이트 수만 세는 출력 대상. 실제 I/O 비용을 빼고 렌더링 비용만 측정한다.
+     */
+    static final class CountingSink extends OutputStream implements WritableByteChannel {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int len = src.remaining();
+            src.position(src.limit());
+            count += len;
+            return len;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 사용자 정보 응답 파싱 시간과 응답당 할당 바이트(gc.alloc.rate.norm)를 비교한다.
+ * <p>
+ * 기존 경로는 본문을 String 으로 받은 뒤 ObjectMapper 로 Map 전체를 만들고 네 값을 꺼내고,
+ * 새 경로는 InputStream 을 {@code UserRecordParser} 로 스트리밍해서 네 값만 읽는다.
+ * 응답 예시는 src/jmh/resources/fixtures 에 있다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserRecordParseBenchmark {
+
+    private static final Object PARSER;
+    private static final MethodHandle PARSE;
+
+    static {
+        try {
+            Class<?> parser = Class.forName("UserRecordParser");
+            PARSER = parser.getConstructor().newInstance();
+            PARSE = MethodHandles.publicLookup()
+                    .findVirtual(parser, "parse", MethodType.methodType(Class.forName("BadgeStats"), InputStream.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, InputStream.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"user-record.json", "user-record-reordered.json"})
+    private String fixture;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = UserRecordParseBenchmark.class.getResourceAsStream("/fixtures/" + fixture)) {
+            body = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object[] stringAndMap() throws IOException {
+        String userRecordBody = new String(body, StandardCharsets.UTF_8);
+        Map<String, Object> myData = objectMapper.readValue(userRecordBody, Map.class);
+        return new Object[]{
+                ((Map<String, Object>) myData.get("skillCheck")).get("level"),
+                ((Map<String, Object>) myData.get("ranking")).get("score"),
+                ((Map<String, Object>) myData.get("codingTest")).get("solved"),
+                ((Map<String, Object>) myData.get("ranking")).get("rank")
+        };
+    }
+
+    @Benchmark
+    public Object streaming() throws Throwable {
+        return (Object) PARSE.invokeExact(PARSER, (InputStream) new ByteArrayInputStream(body));
+    }
+}
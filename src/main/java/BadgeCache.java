@@ -0,0 +1,182 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 렌더링한 뱃지를 사용자별로 보관하는 메모리 캐시.
+ * <p>
+ * 최대 개수를 넘으면 가장 오래 사용하지 않은 항목부터 버린다(LRU). TTL 이 지난 항목은 그대로 돌려주면서
+ * 백그라운드에서 다시 불러온다(stale-while-revalidate). 같은 사용자에 대한 동시 요청은 하나의 로딩으로 합쳐진다.
+ * <p>
+ * 새로 고침이 실패하면 대기 시간(기본값 TTL 의 절반) 동안은 이전 뱃지만 돌려주고 다시 불러오지 않는다.
+ * 장애 중에 자주 요청되는 뱃지가 요청 수만큼 프로그래머스를 호출하지 않게 하기 위해서이며,
+ * 실패 로그도 연속 실패의 처음에만 남긴다.
+ * <p>
+ * 크기 제한은 바이트가 아니라 항목 수다. 항목 하나는 SVG 와 gzip 을 합쳐 기본 템플릿 기준 약 9KB 이므로
+ * 기본값 1000개는 약 9MB 다.
+ */
+public class BadgeCache {
+
+    private final Function<String, CompletableFuture<byte[]>> loader;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final long refreshBackoffNanos;
+    // 사용자별 마지막 새로 고침 실패 시각(System.nanoTime). 성공하면 지운다.
+    private final ConcurrentHashMap<String, Long> failedRefreshes = new ConcurrentHashMap<>();
+
+    /**
+     * @param loader     사용자 이름으로 SVG 바이트를 불러오는 함수
+     * @param ttl        항목을 새로 고치기 전까지 신선하다고 보는 기간
+     * @param maxEntries 보관할 최대 항목 수
+     */
+    public BadgeCache(Function<String, CompletableFuture<byte[]>> loader, Duration ttl, int maxEntries) {
+        this(loader, ttl, maxEntries, ttl.dividedBy(2));
+    }
+
+    /**
+     * @param refreshBackoff 새로 고침이 실패한 뒤 다시 시도하기 전까지 기다리는 시간
+     */
+    BadgeCache(Function<String, CompletableFuture<byte[]>> loader, Duration ttl, int maxEntries, Duration refreshBackoff) {
+        this.loader = loader;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshBackoffNanos = refreshBackoff.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BadgeCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 캐시된 뱃지를 돌려준다. 없으면 불러오고, 오래되었으면 예전 값을 돌려주면서 백그라운드에서 새로 고친다.
+     */
+    public CompletableFuture<Entry> get(String user) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(user);
+        }
+        if (entry == null) {
+            return load(user);
+        }
+        if (System.nanoTime() - entry.loadedAtNanos > ttlNanos && !isBackingOff(user)) {
+            load(user).exceptionally(e -> {
+                // 연속 실패의 처음에만 기록한다.
+                if (failedRefreshes.put(user, System.nanoTime()) == null) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println(user + " 뱃지 새로 고침 실패, 이전 뱃지를 계속 사용합니다: " + cause.getMessage());
+                }
+                return null;
+            });
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private boolean isBackingOff(String user) {
+        Long failedAt = failedRefreshes.get(user);
+        return failedAt != null && System.nanoTime() - failedAt < refreshBackoffNanos;
+    }
+
+    private CompletableFuture<Entry> load(String user) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(user, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<byte[]> loading;
+        try {
+            loading = loader.apply(user);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.thenApply(Entry::new).whenComplete((entry, error) -> {
+            // 캐시에 먼저 넣어야 inFlight 에서 빠지는 순간에도 다른 요청이 다시 불러오지 않는다.
+            if (entry != null) {
+                synchronized (entries) {
+                    entries.put(user, entry);
+                }
+                failedRefreshes.remove(user);
+            }
+            inFlight.remove(user, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(entry);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 렌더링한 SVG 와 미리 압축한 gzip 바이트, 각각의 강한 ETag.
+     */
+    public static final class Entry {
+
+        private final byte[] svg;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+        private final long loadedAtNanos;
+
+        Entry(byte[] svg) {
+            this.svg = svg;
+            this.gzip = gzip(svg);
+            this.etag = etag(svg, "");
+            this.gzipEtag = etag(svg, "-gzip");
+            this.loadedAtNanos = System.nanoTime();
+        }
+
+        public byte[] getSvg() {
+            return svg;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * 강한 ETag 는 표현마다 달라야 하므로 gzip 본문에는 별도의 ETag 를 쓴다.
+         */
+        public String getGzipEtag() {
+            return gzipEtag;
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String etag(byte[] bytes, String suffix) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+                StringBuilder etag = new StringBuilder("\"");
+                for (int i = 0; i < 16; i++) {
+                    etag.append(String.format("%02x", digest[i]));
+                }
+                return etag.append(suffix).append('"').toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
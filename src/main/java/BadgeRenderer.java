@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 미리 컴파일된 SVG 뱃지 렌더러.
+ * <p>
+ * {@link BadgeTemplate#SVG_FORMAT} 을 한 번만 줄이고 나눠서 UTF-8 바이트 조각과 값 자리(레벨, 점수, 문제 수, 랭킹)로 만들어 두고,
+ * 렌더링할 때는 포맷 문자열을 다시 해석하지 않고 조각과 값을 그대로 출력 대상에 쓴다.
+ * 인스턴스는 불변이므로 여러 스레드에서 함께 사용해도 된다.
+ */
+public final class BadgeRenderer {
+
+    /**
+     * 템플릿의 값 자리. 선언 순서가 템플릿에 나타나는 순서와 같다.
+     */
+    public enum Slot {
+        LEVEL, SCORE, SOLVED, RANK
+    }
+
+    private static final BadgeRenderer DEFAULT = compile(defaultTemplate());
+
+    private static final int DEFAULT_PRECISION = 1;
+
+    /**
+     * long 의 최대 자릿수(부호 포함). {@link #render(OutputStream, byte[], long, long, long, long)} 에 넘길 작업 배열의 최소 길이다.
+     */
+    public static final int MAX_LONG_DIGITS = 20;
+
+    private final byte[][] segments;
+    private final int staticLength;
+
+    private BadgeRenderer(byte[][] segments) {
+        this.segments = segments;
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * 기본 뱃지 템플릿으로 만든 렌더러.
+     */
+    public static BadgeRenderer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 줄이지 않은 {@link BadgeTemplate#SVG_FORMAT} 으로 만든 렌더러. 출력이 {@link BadgeTemplate#format} 과 같다.
+     * 호출할 때마다 새로 컴파일하므로 비교나 측정에만 사용한다.
+     */
+    public static BadgeRenderer original() {
+        return compile(BadgeTemplate.SVG_FORMAT);
+    }
+
+    /**
+     * 기본 템플릿을 {@link SvgMinifier} 로 줄인 것. 환경 변수 BADGE_SVG_PRECISION(기본값 1)이 path 좌표의 소수 자릿수이고,
+     * BADGE_SVG_MINIFY=off 이면 원래 템플릿을 그대로 사용한다.
+     */
+    static String defaultTemplate() {
+        if ("off".equalsIgnoreCase(System.getenv("BADGE_SVG_MINIFY"))) {
+            return BadgeTemplate.SVG_FORMAT;
+        }
+        return SvgMinifier.minify(BadgeTemplate.SVG_FORMAT, BatchRunner.intEnv("BADGE_SVG_PRECISION", DEFAULT_PRECISION));
+    }
+
+    /**
+     * {@code %s} 자리가 {@link Slot} 개수만큼 있는 포맷 문자열을 조각으로 나눈다. {@code %%} 는 {@code %} 로 바꾼다.
+     */
+    static BadgeRenderer compile(String format) {
+        List<byte[]> segments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                segment.append(c);
+                continue;
+            }
+            char next = i + 1 < format.length() ? format.charAt(i + 1) : 0;
+            if (next == '%') {
+                segment.append('%');
+            } else if (next == 's') {
+                segments.add(segment.toString().getBytes(StandardCharsets.UTF_8));
+                segment.setLength(0);
+            } else {
+                throw new IllegalArgumentException("지원하지 않는 포맷 지정자: %" + next);
+            }
+            i++;
+        }
+        segments.add(segment.toString().getBytes(StandardCharsets.UTF_8));
+
+        if (segments.size() != Slot.values().length + 1) {
+            throw new IllegalArgumentException("템플릿의 값 자리 수가 맞지 않습니다: " + (segments.size() - 1));
+        }
+        return new BadgeRenderer(segments.toArray(new byte[0][]));
+    }
+
+    /**
+     * 숫자 값으로 렌더링할 때 나올 수 있는 최대 바이트 수.
+     */
+    public int maxRenderedLength() {
+        return staticLength + Slot.values().length * MAX_LONG_DIGITS;
+    }
+
+    /**
+     * 숫자 값을 문자열로 바꾸지 않고 ASCII 숫자로 바로 출력한다.
+     * {@code digits} 는 숫자를 만들 때 쓰는 작업 배열로, 길이가 {@link #MAX_LONG_DIGITS} 이상이어야 하고 호출한 쪽에서 재사용할 수 있다.
+     */
+    public void render(OutputStream out, byte[] digits, long level, long score, long solved, long rank) throws IOException {
+        if (digits.length < MAX_LONG_DIGITS) {
+            throw new IllegalArgumentException("작업 배열이 너무 짧습니다: " + digits.length);
+        }
+        out.write(segments[0]);
+        writeDigits(out, digits, level);
+        out.write(segments[1]);
+        writeDigits(out, digits, score);
+        out.write(segments[2]);
+        writeDigits(out, digits, solved);
+        out.write(segments[3]);
+        writeDigits(out, digits, rank);
+        out.write(segments[4]);
+    }
+
+    /**
+     * 값이 없을 수 있는 경우를 위한 문자열 버전. {@code null} 은 빈 값으로 출력한다.
+     */
+    public void render(OutputStream out, String level, String score, String solved, String rank) throws IOException {
+        out.write(segments[0]);
+        writeText(out, level);
+        out.write(segments[1]);
+        writeText(out, score);
+        out.write(segments[2]);
+        writeText(out, solved);
+        out.write(segments[3]);
+        writeText(out, rank);
+        out.write(segments[4]);
+    }
+
+    /**
+     * 버퍼에 렌더링한다. 버퍼에는 {@link #maxRenderedLength()} 이상의 공간이 남아 있어야 한다.
+     */
+    public void render(ByteBuffer buffer, long level, long score, long solved, long rank) {
+        buffer.put(segments[0]);
+        putDigits(buffer, level);
+        buffer.put(segments[1]);
+        putDigits(buffer, score);
+        buffer.put(segments[2]);
+        putDigits(buffer, solved);
+        buffer.put(segments[3]);
+        putDigits(buffer, rank);
+        buffer.put(segments[4]);
+    }
+
+    /**
+     * 주어진 버퍼를 비우고 렌더링한 뒤 채널에 모두 쓴다. 버퍼는 호출한 쪽에서 재사용할 수 있다.
+     */
+    public void render(WritableByteChannel channel, ByteBuffer buffer,
+                       long level, long score, long solved, long rank) throws IOException {
+        buffer.clear();
+        render(buffer, level, score, solved, rank);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeText(OutputStream out, String value) throws IOException {
+        if (value != null) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeDigits(OutputStream out, byte[] digits, long value) throws IOException {
+        int length = digitCount(value);
+        int pos = length;
+        // 음수 쪽에서 계산해야 Long.MIN_VALUE 도 넘치지 않는다.
+        long n = value < 0 ? value : -value;
+        do {
+            digits[--pos] = (byte) ('0' - (n % 10));
+            n /= 10;
+        } while (n != 0);
+        if (value < 0) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, 0, length);
+    }
+
+    /**
+     * 자릿수를 먼저 세고, 그 끝에서부터 버퍼에 직접(절대 위치로) 숫자를 채운다.
+     */
+    private static void putDigits(ByteBuffer buffer, long value) {
+        int end = buffer.position() + digitCount(value);
+        if (end > buffer.limit()) {
+            throw new BufferOverflowException();
+        }
+        int pos = end;
+        long n = value < 0 ? value : -value;
+        do {
+            buffer.put(--pos, (byte) ('0' - (n % 10)));
+            n /= 10;
+        } while (n != 0);
+        if (value < 0) {
+            buffer.put(--pos, (byte) '-');
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * 10진수로 쓸 때의 길이(음수는 부호 포함).
+     */
+    private static int digitCount(long value) {
+        long n = value < 0 ? value : -value;
+        int count = value < 0 ? 2 : 1;
+        while (n <= -10) {
+            n /= 10;
+            count++;
+        }
+        return count;
+    }
+}
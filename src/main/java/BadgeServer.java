@@ -0,0 +1,232 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /badge/<이름>.svg} 로 뱃지를 바로 내려주는 내장 HTTP 서버.
+ * <p>
+ * 계정 목록 파일(배치 모드와 같은 형식)에 있는 사용자만 제공하며, 뱃지는 {@link BadgeCache} 에서 꺼낸다.
+ * 강한 ETag 로 {@code If-None-Match} 에 304 를 응답하고, 클라이언트가 gzip 을 받으면 미리 압축한 바이트를 보낸다.
+ * {@code BADGE_METRICS=on} 이면 {@code /metrics} 에서 단계별 지연 시간을 Prometheus 형식으로 제공한다.
+ */
+public class BadgeServer {
+
+    private static final Pattern BADGE_PATH = Pattern.compile("/badge/([A-Za-z0-9._-]+)\\.svg");
+    static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_TTL_SECONDS = 600;
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final int DEFAULT_THREADS = 8;
+
+    private final BadgeCache cache;
+    private final Map<String, ?> users;
+    private final long maxAgeSeconds;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public BadgeServer(BadgeCache cache, Map<String, ?> users, Duration ttl) {
+        this.cache = cache;
+        this.users = users;
+        this.maxAgeSeconds = ttl.getSeconds();
+    }
+
+    /**
+     * 환경 변수 BADGE_CACHE_TTL_SECONDS, BADGE_CACHE_MAX_ENTRIES, BADGE_SERVER_THREADS 와
+     * 배치 모드의 BADGE_BATCH_CONCURRENCY, BADGE_BATCH_RATE 로 서버를 구성해서 실행한다.
+     */
+    public static void run(Path accountsFile, int port) throws IOException {
+        Duration ttl = Duration.ofSeconds(BatchRunner.intEnv("BADGE_CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS));
+        int maxEntries = BatchRunner.intEnv("BADGE_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES);
+
+        Map<String, BatchRunner.Account> accounts = BatchRunner.readAccounts(accountsFile).stream()
+                .collect(Collectors.toMap(account -> account.name, Function.identity(), (a, b) -> b));
+        HostThrottle throttle = BatchRunner.throttleFromEnvironment();
+        ProgrammersClient programmersClient = ProgrammersClient.fromEnvironment(throttle);
+        SessionStore sessions = SessionStore.fromEnvironment();
+
+        BadgeCache cache = new BadgeCache(user -> {
+            BatchRunner.Account account = accounts.get(user);
+            return programmersClient.fetchUserRecord(account.id, account.pw, sessions).thenApply(BadgeServer::render);
+        }, ttl, maxEntries);
+
+        BadgeServer badgeServer = new BadgeServer(cache, accounts, ttl);
+        badgeServer.start(port, BatchRunner.intEnv("BADGE_SERVER_THREADS", DEFAULT_THREADS));
+        System.out.printf("뱃지 서버 시작: http://localhost:%d/badge/<이름>.svg (사용자 %d명)%n", port, accounts.size());
+    }
+
+    public void start(int port, int threads) throws IOException {
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/badge/", this::handleBadge);
+        if (Metrics.isEnabled()) {
+            server.createContext("/metrics", this::handleMetrics);
+        }
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * 실제로 열린 포트. 0 번 포트로 시작했을 때 확인용이다.
+     */
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleBadge(HttpExchange exchange) throws IOException {
+        long start = Metrics.start();
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            Matcher matcher = BADGE_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches() || !users.containsKey(matcher.group(1))) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            BadgeCache.Entry entry;
+            try {
+                entry = cache.get(matcher.group(1)).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                System.err.println(matcher.group(1) + " 뱃지 생성 실패: " + cause.getMessage());
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+
+            boolean gzip = acceptsGzip(exchange.getRequestHeaders().get("Accept-Encoding"));
+            String etag = gzip ? entry.getGzipEtag() : entry.getEtag();
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "public, max-age=" + maxAgeSeconds);
+            headers.set("Vary", "Accept-Encoding");
+
+            if (matchesEtag(exchange.getRequestHeaders().get("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = gzip ? entry.getGzip() : entry.getSvg();
+            if (gzip) {
+                headers.set("Content-Encoding", "gzip");
+            }
+            headers.set("Content-Type", "image/svg+xml; charset=utf-8");
+
+            if (method.equals("HEAD")) {
+                headers.set("Content-Length", Integer.toString(body.length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+            Metrics.stop(Metrics.Phase.SERVE, start);
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = Metrics.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static byte[] render(BadgeStats stats) {
+        BadgeRenderer renderer = BadgeRenderer.getDefault();
+        ByteBuffer buffer = ByteBuffer.allocate(renderer.maxRenderedLength());
+        renderer.render(buffer, stats.getLevel(), stats.getScore(), stats.getSolved(), stats.getRank());
+        byte[] svg = new byte[buffer.position()];
+        buffer.flip().get(svg);
+        return svg;
+    }
+
+    static boolean matchesEtag(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-None-Match 는 약한 비교(RFC 9110 8.8.3.2)를 하므로 {@code W/} 를 떼고 태그 값만 비교한다.
+     * 프록시가 압축을 바꾸며 ETag 를 약하게 바꿔 보내도 304 로 응답할 수 있다.
+     */
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static boolean isZero(String qvalue) {
+        try {
+            return Double.parseDouble(qvalue) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static boolean acceptsGzip(List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                    continue;
+                }
+                // gzip;q=0 은 거부를 뜻한다.
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=") && isZero(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Objects;
+
+/**
+ * 뱃지에 표시하는 사용자 통계. 불변 객체이다.
+ */
+public final class BadgeStats {
+
+    private final int level;
+    private final long score;
+    private final int solved;
+    private final long rank;
+
+    public BadgeStats(int level, long score, int solved, long rank) {
+        this.level = level;
+        this.score = score;
+        this.solved = solved;
+        this.rank = rank;
+    }
+
+    /**
+     * 정복 중인 레벨 (skillCheck.level)
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * 현재 점수 (ranking.score)
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * 해결한 코딩 테스트 수 (codingTest.solved)
+     */
+    public int getSolved() {
+        return solved;
+    }
+
+    /**
+     * 나의 랭킹 (ranking.rank)
+     */
+    public long getRank() {
+        return rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BadgeStats)) {
+            return false;
+        }
+        BadgeStats that = (BadgeStats) o;
+        return level == that.level && score == that.score && solved == that.solved && rank == that.rank;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, score, solved, rank);
+    }
+
+    @Override
+    public String toString() {
+        return "BadgeStats{level=" + level + ", score=" + score + ", solved=" + solved + ", rank=" + rank + '}';
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 뱃지를 파일로 쓰되, 내용이 바뀌지 않았으면 쓰지 않는다.
+ * <p>
+ * 렌더링한 바이트의 SHA-256 을 뱃지 옆의 {@code <뱃지>.manifest} 파일(통계와 digest)과 비교해서 같으면 건너뛰고,
+ * 다르면 같은 디렉토리의 임시 파일에 쓴 뒤 {@code ATOMIC_MOVE} 로 교체하므로 읽는 쪽은 반쯤 쓰인 SVG 를 보지 않는다.
+ * 뱃지 옆에는 미리 압축한 {@code <뱃지>.gz} 를 함께 쓰고, BADGE_SVG_DEFLATE=on 이면 {@code <뱃지>.deflate}(zlib)도 쓴다.
+ * <p>
+ * 렌더링 버퍼와 digest 를 재사용하므로 스레드 안전하지 않다. 배치처럼 여러 뱃지를 쓸 때는 한 인스턴스로 차례대로 쓴다.
+ */
+public class BadgeWriter {
+
+    public enum Result {
+        WRITTEN, UNCHANGED
+    }
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String DEFLATE_SUFFIX = ".deflate";
+
+    private final BadgeRenderer renderer;
+    private final ByteBuffer buffer;
+    private final MessageDigest digest;
+    private final boolean deflate;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    // 압축 스트림에 넘길 렌더링 결과 사본
+    private final byte[] bytes;
+
+    public BadgeWriter(BadgeRenderer renderer) {
+        this(renderer, "on".equalsIgnoreCase(System.getenv("BADGE_SVG_DEFLATE")));
+    }
+
+    /**
+     * @param deflate gzip 외에 zlib 형식의 {@code .deflate} 파일도 쓸지 여부
+     */
+    public BadgeWriter(BadgeRenderer renderer, boolean deflate) {
+        this.renderer = renderer;
+        this.deflate = deflate;
+        this.buffer = ByteBuffer.allocateDirect(renderer.maxRenderedLength());
+        this.bytes = new byte[renderer.maxRenderedLength()];
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 통계로 뱃지를 렌더링해서 바뀌었을 때만 파일을 교체한다.
+     */
+    public Result write(Path target, BadgeStats stats) throws IOException {
+        long renderStart = Metrics.start();
+        buffer.clear();
+        renderer.render(buffer, stats.getLevel(), stats.getScore(), stats.getSolved(), stats.getRank());
+        buffer.flip();
+
+        String sha256 = sha256(buffer);
+        Metrics.stop(Metrics.Phase.RENDER, renderStart);
+
+        int length = buffer.remaining();
+        buffer.duplicate().get(bytes, 0, length);
+        return replace(target, stats, buffer, bytes, sha256);
+    }
+
+    /**
+     * 이미 렌더링한 뱃지(추세 뱃지 등)를 바뀌었을 때만 쓴다. manifest 에는 {@code stats} 를 남긴다.
+     */
+    public Result write(Path target, BadgeStats stats, byte[] svg) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(svg);
+        return replace(target, stats, content, svg, sha256(content));
+    }
+
+    /**
+     * @param content 쓸 내용, {@code array} 의 앞부분과 같아야 한다
+     * @param array   압축할 때 사용할 내용의 바이트 배열
+     */
+    private Result replace(Path target, BadgeStats stats, ByteBuffer content, byte[] array, String sha256) throws IOException {
+        Path manifestFile = sibling(target, MANIFEST_SUFFIX);
+        Path gzipFile = sibling(target, GZIP_SUFFIX);
+        Path deflateFile = sibling(target, DEFLATE_SUFFIX);
+        if (Files.exists(target) && Files.exists(gzipFile) && (!deflate || Files.exists(deflateFile))
+                && sha256.equals(readDigest(manifestFile))) {
+            return Result.UNCHANGED;
+        }
+
+        long writeStart = Metrics.start();
+        Files.createDirectories(target.toAbsolutePath().getParent());
+
+        // 압축 파일을 먼저 쓰고 뱃지를 마지막에 교체한다. 압축은 내용이 바뀔 때만 하므로 가장 높은 압축률을 쓴다.
+        int length = content.remaining();
+        writeCompressed(gzipFile, out -> new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }, array, length);
+        if (deflate) {
+            deflater.reset();
+            writeCompressed(deflateFile, out -> new DeflaterOutputStream(out, deflater), array, length);
+        }
+
+        Path temp = createTempFile(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // 뱃지를 교체한 뒤에 manifest 를 쓴다. 그 사이에 중단되면 다음 실행에서 다시 쓴다.
+        writeManifest(manifestFile, stats, sha256);
+        Metrics.stop(Metrics.Phase.WRITE, writeStart);
+        return Result.WRITTEN;
+    }
+
+    /**
+     * 렌더링 결과를 압축해서 임시 파일에 쓴 뒤 교체한다. GZIPOutputStream 은 헤더의 수정 시각을 0 으로 쓰므로
+     * 같은 뱃지는 항상 같은 압축 파일이 된다.
+     */
+    private static void writeCompressed(Path file, CompressorFactory compressor, byte[] bytes, int length) throws IOException {
+        Path temp = createTempFile(file);
+        try {
+            try (OutputStream out = compressor.open(Files.newOutputStream(temp))) {
+                out.write(bytes, 0, length);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String sha256(ByteBuffer content) {
+        digest.reset();
+        digest.update(content.duplicate());
+        return toHex(digest.digest());
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+
+    private static String readDigest(Path manifestFile) {
+        if (!Files.exists(manifestFile)) {
+            return null;
+        }
+        Properties manifest = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            manifest.load(reader);
+            return manifest.getProperty("sha256");
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeManifest(Path manifestFile, BadgeStats stats, String sha256) throws IOException {
+        // Properties.store 는 날짜 주석을 남겨서 내용이 같아도 파일이 바뀌므로 직접 쓴다.
+        String manifest = "level=" + stats.getLevel() + "\n"
+                + "score=" + stats.getScore() + "\n"
+                + "solved=" + stats.getSolved() + "\n"
+                + "rank=" + stats.getRank() + "\n"
+                + "sha256=" + sha256 + "\n";
+
+        Path temp = createTempFile(manifestFile);
+        try {
+            Files.writeString(temp, manifest);
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 교체할 파일과 같은 디렉토리에 임시 파일을 만든다. 같은 파일 시스템이어야 ATOMIC_MOVE 가 가능하다.
+     * createTempFile 은 소유자만 읽을 수 있게 만들기 때문에 일반 파일 권한으로 바꾼다.
+     */
+    static Path createTempFile(Path target) throws IOException {
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+        }
+        return temp;
+    }
+
+    private interface CompressorFactory {
+        OutputStream open(OutputStream out) throws IOException;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
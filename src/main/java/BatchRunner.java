@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 계정 목록 파일을 읽어 한 프로세스에서 여러 계정의 뱃지를 동시에 생성한다.
+ * <p>
+ * 계정 파일은 한 줄에 {@code 이름,아이디,비밀번호} 형식이며 빈 줄과 {@code #} 으로 시작하는 줄은 무시한다.
+ * 각 계정의 결과는 {@code result/<이름>.svg} 에 저장되고, 한 계정의 실패는 다른 계정에 영향을 주지 않는다.
+ */
+public class BatchRunner {
+
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final double DEFAULT_RATE = 5.0;
+
+    private final ProgrammersClient programmersClient;
+    private final SessionStore sessions;
+    private final Path fileDirectory;
+
+    public BatchRunner(ProgrammersClient programmersClient, SessionStore sessions, Path fileDirectory) {
+        this.programmersClient = programmersClient;
+        this.sessions = sessions;
+        this.fileDirectory = fileDirectory;
+    }
+
+    /**
+     * 환경 변수 BADGE_BATCH_CONCURRENCY, BADGE_BATCH_RATE 로 호스트별 동시 요청 수와 초당 요청 수를 정하고 배치를 실행한다.
+     *
+     * @return 종료 코드 (실패한 계정이 있으면 1, 바뀐 뱃지가 하나도 없으면 {@link Main#EXIT_UNCHANGED}, 그 외 0)
+     */
+    public static int run(Path accountsFile, Path fileDirectory) throws IOException {
+        List<Account> accounts = readAccounts(accountsFile);
+        try (HostThrottle throttle = throttleFromEnvironment();
+             ProgrammersClient programmersClient = ProgrammersClient.fromEnvironment(throttle)) {
+            return new BatchRunner(programmersClient, SessionStore.fromEnvironment(), fileDirectory).generateAll(accounts);
+        }
+    }
+
+    /**
+     * 모든 계정의 통계를 동시에 가져온 뒤, 하나의 {@link BadgeWriter} 로 바뀐 뱃지만 차례대로 쓴다.
+     *
+     * @return 종료 코드 (실패한 계정이 있으면 1, 바뀐 뱃지가 하나도 없으면 {@link Main#EXIT_UNCHANGED}, 그 외 0)
+     */
+    public int generateAll(List<Account> accounts) throws IOException {
+        Files.createDirectories(fileDirectory);
+
+        List<CompletableFuture<BadgeStats>> results = new ArrayList<>();
+        for (Account account : accounts) {
+            results.add(fetch(account));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+
+        // 렌더링 버퍼를 재사용하기 위해 파일 쓰기는 한 스레드에서 한 번에 처리한다.
+        BadgeWriter writer = new BadgeWriter(BadgeRenderer.getDefault());
+        TrendBadge trendBadge = TrendBadge.fromEnvironment();
+        Instant now = Instant.now();
+        int failed = 0;
+        int written = 0;
+        try (StatsHistory history = StatsHistory.fromEnvironment()) {
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                BadgeStats stats = results.get(i).join();
+                if (stats == null) {
+                    failed++;
+                    continue;
+                }
+                Path resultFile = fileDirectory.resolve(account.name + ".svg");
+                try {
+                    boolean changed = writer.write(resultFile, stats) == BadgeWriter.Result.WRITTEN;
+                    if (history != null) {
+                        Path trendFile = fileDirectory.resolve(account.name + ".trend.svg");
+                        changed |= trendBadge.write(writer, trendFile, history, account.id, stats, now) == BadgeWriter.Result.WRITTEN;
+                    }
+                    if (changed) {
+                        written++;
+                        System.out.println(account.name + " 뱃지 생성 성공");
+                    } else {
+                        System.out.println(account.name + " 뱃지 변경 사항 없음");
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // 렌더링이나 통계 기록에서 난 오류도 이 계정의 실패로 세고 다음 계정을 계속 처리한다.
+                    failed++;
+                    System.err.println(account.name + " 뱃지 저장 실패: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.printf("배치 완료: 성공 %d (변경 %d), 실패 %d%n", accounts.size() - failed, written, failed);
+        Main.printSessionReport(sessions);
+        if (failed > 0) {
+            return 1;
+        }
+        return written == 0 ? Main.EXIT_UNCHANGED : 0;
+    }
+
+    /**
+     * 계정의 통계를 가져온다. 실패하면 로그를 남기고 {@code null} 로 완료해서 다른 계정에 영향을 주지 않는다.
+     */
+    private CompletableFuture<BadgeStats> fetch(Account account) {
+        return programmersClient.fetchUserRecord(account.id, account.pw, sessions)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println(account.name + " 뱃지 생성 실패: " + cause.getMessage());
+                    return null;
+                });
+    }
+
+    static List<Account> readAccounts(Path accountsFile) throws IOException {
+        List<Account> accounts = new ArrayList<>();
+        List<String> lines = Files.readAllLines(accountsFile, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            // 비밀번호에는 쉼표가 들어갈 수 있으므로 앞의 두 칸만 나눈다.
+            String[] columns = line.split(",", 3);
+            if (columns.length != 3 || !columns[0].trim().matches("[A-Za-z0-9._-]+")) {
+                throw new IllegalArgumentException(accountsFile + ":" + (i + 1) + " 형식이 올바르지 않습니다. (이름,아이디,비밀번호)");
+            }
+            accounts.add(new Account(columns[0].trim(), columns[1].trim(), columns[2]));
+        }
+        return accounts;
+    }
+
+    /**
+     * 환경 변수 BADGE_BATCH_CONCURRENCY, BADGE_BATCH_RATE 로 호스트별 요청 제한을 만든다.
+     */
+    static HostThrottle throttleFromEnvironment() {
+        double rate = doubleEnv("BADGE_BATCH_RATE", DEFAULT_RATE);
+        return new HostThrottle(concurrencyFromEnvironment(), rate);
+    }
+
+    /**
+     * 환경 변수 BADGE_BATCH_CONCURRENCY(기본값 4). 호스트별 동시 요청 수이자 {@link ProgrammersClient} 의 스레드 수다.
+     */
+    static int concurrencyFromEnvironment() {
+        return intEnv("BADGE_BATCH_CONCURRENCY", DEFAULT_CONCURRENCY);
+    }
+
+    static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static double doubleEnv(String name, double defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    /**
+     * 배치 대상 계정. 이름은 결과 파일 이름으로 쓰인다.
+     */
+    public static final class Account {
+
+        final String name;
+        final String id;
+        final String pw;
+
+        public Account(String name, String id, String pw) {
+            this.name = name;
+            this.id = id;
+            this.pw = pw;
+        }
+    }
+}
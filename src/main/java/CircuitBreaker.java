@@ -0,0 +1,86 @@
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 연속 실패가 기준을 넘으면 일정 시간 동안 요청을 바로 거절하는 서킷 브레이커.
+ * <p>
+ * 열린 시간이 지나면 요청 하나만 시험 삼아 보내고(half-open), 성공하면 닫고 실패하면 다시 연다.
+ * 배치가 장애 중인 사이트에 계속 요청을 보내지 않도록 한다.
+ */
+public class CircuitBreaker {
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime 열린 시간을 잴 시계. 테스트에서 시간을 직접 넘길 때 사용한다.
+     */
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * 요청을 보내도 되는지 확인한다. {@code true} 를 받았다면 결과를 {@link #onSuccess()} 나 {@link #onFailure()} 로 알려야 한다.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = nanoTime.getAsLong();
+            System.err.printf("연속 %d회 실패로 %.1f초 동안 프로그래머스 요청을 중단합니다.%n",
+                    consecutiveFailures, openNanos / 1_000_000_000.0);
+        }
+    }
+
+    /**
+     * 서킷이 열려 있어 요청을 보내지 않았을 때 발생한다.
+     */
+    public static class OpenException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public OpenException(String message) {
+            super(message);
+        }
+    }
+}
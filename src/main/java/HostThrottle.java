@@ -0,0 +1,119 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 호스트별로 동시에 진행 중인 요청 수와 초당 요청 시작 횟수를 제한한다.
+ * 요청을 막고 기다리는 대신 큐에 넣어 두었다가 자리가 나면 비동기로 시작한다.
+ */
+public class HostThrottle implements AutoCloseable {
+
+    private final int maxConcurrent;
+    private final long minIntervalNanos;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "host-throttle");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param maxConcurrent     호스트별 최대 동시 요청 수
+     * @param requestsPerSecond 호스트별 초당 최대 요청 시작 횟수, 0 이하이면 제한하지 않음
+     */
+    public HostThrottle(int maxConcurrent, double requestsPerSecond) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent 는 1 이상이어야 합니다: " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.minIntervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+    }
+
+    /**
+     * 호스트의 허용량 안에서 요청을 시작하고, 요청이 끝나면 다음 요청에 자리를 넘긴다.
+     */
+    public <T> CompletableFuture<T> submit(String host, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Host state = hosts.computeIfAbsent(host, h -> new Host());
+        state.enqueue(() -> {
+            CompletableFuture<T> started;
+            try {
+                started = call.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, error) -> {
+                state.release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private final class Host {
+
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int inFlight;
+        private long nextStartNanos = System.nanoTime();
+        private boolean drainScheduled;
+
+        void enqueue(Runnable task) {
+            synchronized (this) {
+                pending.add(task);
+            }
+            drain();
+        }
+
+        void release() {
+            synchronized (this) {
+                inFlight--;
+            }
+            drain();
+        }
+
+        private void scheduledDrain() {
+            synchronized (this) {
+                drainScheduled = false;
+            }
+            drain();
+        }
+
+        private void drain() {
+            List<Runnable> ready = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight < maxConcurrent && !pending.isEmpty()) {
+                    long now = System.nanoTime();
+                    if (now - nextStartNanos < 0) {
+                        if (!drainScheduled) {
+                            drainScheduled = true;
+                            scheduler.schedule(this::scheduledDrain, nextStartNanos - now, TimeUnit.NANOSECONDS);
+                        }
+                        break;
+                    }
+                    nextStartNanos = now + minIntervalNanos;
+                    inFlight++;
+                    ready.add(pending.poll());
+                }
+            }
+            // 락 밖에서 시작해야 즉시 완료된 요청의 release() 가 큐를 막지 않는다.
+            ready.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 뱃지 생성 단계별 지연 시간과 HTTP 상태 코드, 응답 크기, 재시도와 헤지 요청 횟수를 모은다.
+ * <p>
+ * 환경 변수 {@code BADGE_METRICS=on} 일 때만 동작한다. 꺼져 있으면 {@link #start()} 가 시계를 읽지 않고
+ * 나머지 기록 메서드도 상수 조건 하나로 바로 돌아가므로 비용이 거의 없다.
+ * 실행이 끝나면 {@link #report()} 가 JSON 요약을 출력하고 JSON 과 Prometheus 텍스트 형식 파일을 남기며,
+ * 서버 모드에서는 {@code /metrics} 로 Prometheus 형식을 제공한다.
+ */
+public final class Metrics {
+
+    /**
+     * 측정하는 단계. HttpClient 는 TLS 연결 시간을 따로 알려주지 않으므로 연결 시간은 첫 요청 단계에 포함된다.
+     */
+    public enum Phase {
+        SIGN_IN, RECORD_FETCH, JSON_PARSE, RENDER, WRITE, SERVE, TOTAL;
+
+        String metricName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final boolean ENABLED = "on".equalsIgnoreCase(System.getenv("BADGE_METRICS"));
+    private static final Path DEFAULT_DIRECTORY = Paths.get("build", "metrics");
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final LatencyHistogram[] LATENCIES = new LatencyHistogram[PHASES.length];
+    private static final LongAdder[] RESPONSE_BYTES = new LongAdder[PHASES.length];
+    private static final LongAdder[] RETRIES = new LongAdder[PHASES.length];
+    private static final LongAdder[] HEDGES = new LongAdder[PHASES.length];
+    private static final Map<String, LongAdder> HTTP_STATUS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < PHASES.length; i++) {
+            LATENCIES[i] = new LatencyHistogram();
+            RESPONSE_BYTES[i] = new LongAdder();
+            RETRIES[i] = new LongAdder();
+            HEDGES[i] = new LongAdder();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 단계 시작 시각. 꺼져 있으면 0 을 돌려준다.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * {@link #start()} 로부터 지난 시간을 단계의 히스토그램에 기록한다.
+     */
+    public static void stop(Phase phase, long start) {
+        if (ENABLED) {
+            LATENCIES[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public static void recordStatus(Phase phase, int statusCode) {
+        if (ENABLED) {
+            HTTP_STATUS.computeIfAbsent(phase.metricName() + ":" + statusCode, key -> new LongAdder()).increment();
+        }
+    }
+
+    public static void recordResponseBytes(Phase phase, long bytes) {
+        if (ENABLED) {
+            RESPONSE_BYTES[phase.ordinal()].add(bytes);
+        }
+    }
+
+    public static void recordRetry(Phase phase) {
+        if (ENABLED) {
+            RETRIES[phase.ordinal()].increment();
+        }
+    }
+
+    public static void recordHedge(Phase phase) {
+        if (ENABLED) {
+            HEDGES[phase.ordinal()].increment();
+        }
+    }
+
+    /**
+     * 꺼져 있으면 스트림을 그대로, 켜져 있으면 읽은 바이트 수를 단계의 응답 크기로 더하는 스트림을 돌려준다.
+     */
+    public static InputStream countingStream(Phase phase, InputStream in) {
+        if (!ENABLED) {
+            return in;
+        }
+        LongAdder bytes = RESPONSE_BYTES[phase.ordinal()];
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytes.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytes.add(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    /**
+     * 실행 결과를 JSON 으로 출력하고 BADGE_METRICS_DIR(기본값 build/metrics)에 metrics.json, metrics.prom 으로 저장한다.
+     */
+    public static void report() {
+        if (!ENABLED) {
+            return;
+        }
+        String dir = System.getenv("BADGE_METRICS_DIR");
+        Path directory = dir != null ? Paths.get(dir) : DEFAULT_DIRECTORY;
+        String json = toJson();
+        System.out.println("metrics: " + json);
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("metrics.json"), json);
+            Files.writeString(directory.resolve("metrics.prom"), toPrometheus());
+        } catch (IOException e) {
+            System.err.println("metrics 저장 실패: " + e.getMessage());
+        }
+    }
+
+    static String toJson() {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            LatencyHistogram latency = LATENCIES[phase.ordinal()];
+            if (latency.getCount() == 0 && RESPONSE_BYTES[phase.ordinal()].sum() == 0) {
+                continue;
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", latency.getCount());
+            summary.put("totalMs", toMillis(latency.getSum()));
+            for (double percentile : PERCENTILES) {
+                summary.put("p" + (int) percentile + "Ms", toMillis(latency.getValueAtPercentile(percentile)));
+            }
+            summary.put("maxMs", toMillis(latency.getMax()));
+            summary.put("responseBytes", RESPONSE_BYTES[phase.ordinal()].sum());
+            summary.put("retries", RETRIES[phase.ordinal()].sum());
+            summary.put("hedges", HEDGES[phase.ordinal()].sum());
+            summary.put("httpStatus", statusCounts(phase));
+            phases.put(phase.metricName(), summary);
+        }
+        try {
+            return new ObjectMapper().writeValueAsString(Map.of("phases", phases));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Prometheus 텍스트 형식. 지연 시간은 summary(백분위, 합계, 개수)로 내보낸다.
+     */
+    public static String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP badge_phase_duration_seconds Duration of each badge pipeline phase.\n");
+        out.append("# TYPE badge_phase_duration_seconds summary\n");
+        for (Phase phase : PHASES) {
+            LatencyHistogram latency = LATENCIES[phase.ordinal()];
+            String label = "phase=\"" + phase.metricName() + "\"";
+            for (double percentile : PERCENTILES) {
+                out.append("badge_phase_duration_seconds{").append(label)
+                        .append(",quantile=\"").append(percentile / 100).append("\"} ")
+                        .append(toSeconds(latency.getValueAtPercentile(percentile))).append('\n');
+            }
+            out.append("badge_phase_duration_seconds_sum{").append(label).append("} ").append(toSeconds(latency.getSum())).append('\n');
+            out.append("badge_phase_duration_seconds_count{").append(label).append("} ").append(latency.getCount()).append('\n');
+        }
+
+        out.append("# HELP badge_http_responses_total Upstream HTTP responses by phase and status code.\n");
+        out.append("# TYPE badge_http_responses_total counter\n");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(HTTP_STATUS).entrySet()) {
+            String[] key = entry.getKey().split(":");
+            out.append("badge_http_responses_total{phase=\"").append(key[0]).append("\",code=\"").append(key[1]).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+
+        out.append("# HELP badge_http_response_bytes_total Upstream response body bytes by phase.\n");
+        out.append("# TYPE badge_http_response_bytes_total counter\n");
+        for (Phase phase : PHASES) {
+            out.append("badge_http_response_bytes_total{phase=\"").append(phase.metricName()).append("\"} ")
+                    .append(RESPONSE_BYTES[phase.ordinal()].sum()).append('\n');
+        }
+
+        out.append("# HELP badge_http_retries_total Upstream request retries by phase.\n");
+        out.append("# TYPE badge_http_retries_total counter\n");
+        for (Phase phase : PHASES) {
+            out.append("badge_http_retries_total{phase=\"").append(phase.metricName()).append("\"} ")
+                    .append(RETRIES[phase.ordinal()].sum()).append('\n');
+        }
+
+        out.append("# HELP badge_http_hedges_total Hedged upstream requests by phase.\n");
+        out.append("# TYPE badge_http_hedges_total counter\n");
+        for (Phase phase : PHASES) {
+            out.append("badge_http_hedges_total{phase=\"").append(phase.metricName()).append("\"} ")
+                    .append(HEDGES[phase.ordinal()].sum()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static Map<String, Long> statusCounts(Phase phase) {
+        Map<String, Long> counts = new TreeMap<>();
+        String prefix = phase.metricName() + ":";
+        HTTP_STATUS.forEach((key, value) -> {
+            if (key.startsWith(prefix)) {
+                counts.put(key.substring(prefix.length()), value.sum());
+            }
+        });
+        return counts;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 프로그래머스 로그인과 사용자 정보 요청을 담당하는 클라이언트.
+ * 요청은 {@link ResilientSender} 로 보내므로 타임아웃, 재시도, 서킷 브레이커가 적용되고,
+ * {@link HostThrottle} 이 있으면 호스트별 동시 요청 수와 속도를 제한한다.
+ * <p>
+ * 응답 본문 읽기와 파싱, 재시도와 헤지 타이머는 클라이언트가 가진 전용 스레드 풀에서 실행한다.
+ * 본문 읽기는 블로킹이라 공용 ForkJoinPool(vCPU 2개에서는 스레드 1개)에 두면 다른 요청의 처리까지 막는다.
+ */
+public class ProgrammersClient implements AutoCloseable {
+
+    static final URI PROGRAMMERS = URI.create("https://programmers.co.kr");
+    static final String SIGN_IN_PATH = "/api/v1/account/sign-in";
+    static final String USER_RECORD_PATH = "/api/v1/users/record";
+
+    // Set-Cookie 에 만료 정보가 없을 때 세션을 재사용할 기간
+    private static final Duration DEFAULT_SESSION_TTL = Duration.ofHours(12);
+
+    private final ResilientSender sender;
+    private final URI signInUri;
+    private final URI userRecordUri;
+    private final Duration requestTimeout;
+    private final UserRecordParser userRecordParser = new UserRecordParser();
+    private final ExecutorService executor;
+
+    public ProgrammersClient(ResilientSender sender) {
+        this(sender, PROGRAMMERS);
+    }
+
+    /**
+     * 프로그래머스 대신 다른 주소(로컬 테스트 서버 등)로 요청을 보낼 때 사용한다.
+     * 스레드 풀 크기는 BADGE_BATCH_CONCURRENCY 를 따른다.
+     */
+    ProgrammersClient(ResilientSender sender, URI baseUri) {
+        this(sender, baseUri, BatchRunner.concurrencyFromEnvironment());
+    }
+
+    /**
+     * @param threads 응답 본문을 읽을 스레드 수. 동시에 진행되는 요청 수만큼이면 충분하다.
+     */
+    ProgrammersClient(ResilientSender sender, URI baseUri, int threads) {
+        this.sender = sender;
+        this.signInUri = baseUri.resolve(SIGN_IN_PATH);
+        this.userRecordUri = baseUri.resolve(USER_RECORD_PATH);
+        this.requestTimeout = sender.getConfig().getRequestTimeout();
+        this.executor = newExecutor(threads);
+    }
+
+    /**
+     * 환경 변수의 {@link UpstreamConfig} 로 클라이언트를 만든다.
+     *
+     * @param throttle 호스트별 요청 제한, 없으면 {@code null}
+     */
+    public static ProgrammersClient fromEnvironment(HostThrottle throttle) {
+        return new ProgrammersClient(ResilientSender.create(throttle, UpstreamConfig.fromEnvironment()));
+    }
+
+    /**
+     * 프로그래머스에 로그인하고 이후 요청에 사용할 Cookie 헤더 값과 만료 시각을 돌려준다.
+     */
+    public CompletableFuture<SessionStore.Session> signIn(String id, String pw) {
+        String signInPayload = String.format("{\"user\": {\"email\": \"%s\", \"password\": \"%s\"}}", id, pw);
+        HttpRequest signInRequest = HttpRequest.newBuilder()
+                .uri(signInUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(signInPayload))
+                .build();
+
+        long start = Metrics.start();
+        return sender.send(signInRequest, HttpResponse.BodyHandlers.ofString(), Metrics.Phase.SIGN_IN, executor).thenApply(signInResponse -> {
+            Metrics.stop(Metrics.Phase.SIGN_IN, start);
+            Metrics.recordStatus(Metrics.Phase.SIGN_IN, signInResponse.statusCode());
+            if (Metrics.isEnabled()) {
+                Metrics.recordResponseBytes(Metrics.Phase.SIGN_IN, signInResponse.body().getBytes(StandardCharsets.UTF_8).length);
+            }
+            System.out.println(signInResponse);
+            if (signInResponse.statusCode() != 200) {
+                throw new IllegalStateException("로그인 실패: " + signInResponse.body());
+            }
+
+            // 모든 쿠키를 추출, Max-Age=0 으로 지우라는 쿠키는 세션에 넣지 않는다.
+            List<String> setCookies = signInResponse.headers().allValues("set-cookie").stream()
+                    .filter(cookie -> !isDeletion(cookie))
+                    .collect(Collectors.toList());
+            List<String> cookies = setCookies.stream()
+                    .map(cookie -> cookie.split(";", 2)[0])  // 쿠키 값만 추출
+                    .collect(Collectors.toList());
+            return new SessionStore.Session(String.join("; ", cookies), expiresAt(setCookies));
+        });
+    }
+
+    /**
+     * 저장된 세션이 있으면 로그인 없이 사용자 정보를 요청하고,
+     * 세션이 없거나 만료되었거나 서버가 401/403 으로 거부하면 다시 로그인한 뒤 세션을 저장한다.
+     */
+    public CompletableFuture<BadgeStats> fetchUserRecord(String id, String pw, SessionStore sessions) {
+        Optional<SessionStore.Session> cached = sessions.load(id);
+        if (cached.isEmpty()) {
+            return signInAndFetchUserRecord(id, pw, sessions);
+        }
+        return fetchUserRecord(cached.get().getCookieHeader())
+                .handle((stats, error) -> {
+                    if (error == null) {
+                        sessions.recordSavedLogin();
+                        return CompletableFuture.completedFuture(stats);
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof UnauthorizedException) {
+                        sessions.invalidate(id);
+                        return signInAndFetchUserRecord(id, pw, sessions);
+                    }
+                    return CompletableFuture.<BadgeStats>failedFuture(cause);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<BadgeStats> signInAndFetchUserRecord(String id, String pw, SessionStore sessions) {
+        return signIn(id, pw).thenCompose(session -> {
+            sessions.recordLogin();
+            try {
+                sessions.save(id, session);
+            } catch (IOException e) {
+                // 세션 저장 실패는 뱃지 생성에 영향을 주지 않는다.
+                System.err.println("세션 저장 실패: " + e.getMessage());
+            }
+            return fetchUserRecord(session.getCookieHeader());
+        });
+    }
+
+    /**
+     * 로그인 쿠키로 사용자 정보를 요청한다.
+     * 응답 본문은 문자열로 모으지 않고 InputStream 으로 받아 {@link UserRecordParser} 로 바로 읽는다.
+     * GET 이므로 설정에 따라 헤지 요청을 사용할 수 있다.
+     * <p>
+     * HttpRequest 의 timeout 은 응답 헤더까지만 적용되므로, 헤더를 받은 뒤에도 요청 타임아웃 안에 본문을 다 읽지 못하면
+     * 본문을 닫고 {@link HttpTimeoutException} 으로 실패한다. 헤더만 보내고 멈춘 서버가 스레드를 붙잡지 못하게 하기 위해서다.
+     */
+    public CompletableFuture<BadgeStats> fetchUserRecord(String cookiesHeader) {
+        HttpRequest userRecordRequest = HttpRequest.newBuilder()
+                .uri(userRecordUri)
+                .timeout(requestTimeout)
+                .header("Cookie", cookiesHeader)
+                .GET()
+                .build();
+
+        // 본문 스트림은 응답을 전달하는 스레드가 아닌 곳에서 읽어야 하므로 전용 스레드 풀에서 thenApplyAsync 로 읽는다.
+        long start = Metrics.start();
+        return sender.sendHedged(userRecordRequest, HttpResponse.BodyHandlers.ofInputStream(), Metrics.Phase.RECORD_FETCH, executor).thenApplyAsync(userRecordResponse -> {
+            Metrics.stop(Metrics.Phase.RECORD_FETCH, start);
+            Metrics.recordStatus(Metrics.Phase.RECORD_FETCH, userRecordResponse.statusCode());
+            AtomicBoolean expired = new AtomicBoolean();
+            CompletableFuture<Void> deadline = closeAfterTimeout(userRecordResponse.body(), expired);
+            try (InputStream body = Metrics.countingStream(Metrics.Phase.RECORD_FETCH, userRecordResponse.body())) {
+                int statusCode = userRecordResponse.statusCode();
+                if (statusCode == 401 || statusCode == 403) {
+                    throw new UnauthorizedException("세션이 거부되었습니다: " + userRecordResponse);
+                }
+                if (statusCode != 200) {
+                    String message = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    throw new IllegalStateException("사용자 정보 요청 실패: " + userRecordResponse + " " + message);
+                }
+                long parseStart = Metrics.start();
+                BadgeStats stats = userRecordParser.parse(body);
+                Metrics.stop(Metrics.Phase.JSON_PARSE, parseStart);
+                return stats;
+            } catch (IOException e) {
+                throw expired.get() ? bodyTimeout() : new IllegalStateException("사용자 정보 파싱 실패", e);
+            } catch (RuntimeException e) {
+                // 본문을 닫으면 중간에 끝난 JSON 으로 파싱 오류가 날 수 있으므로 타임아웃으로 바꿔서 알린다.
+                throw expired.get() ? bodyTimeout() : e;
+            } finally {
+                deadline.cancel(false);
+            }
+        }, executor);
+    }
+
+    /**
+     * 요청 타임아웃이 지나면 본문을 닫는다. 읽는 스레드는 풀의 스레드이므로 닫는 일은 풀이 아닌 타이머 스레드에서 한다.
+     * 반환된 future 를 취소하면 닫지 않는다.
+     */
+    private CompletableFuture<Void> closeAfterTimeout(InputStream body, AtomicBoolean expired) {
+        Executor timer = CompletableFuture.delayedExecutor(requestTimeout.toNanos(), TimeUnit.NANOSECONDS, Runnable::run);
+        return CompletableFuture.runAsync(() -> {
+            expired.set(true);
+            try {
+                body.close();
+            } catch (IOException e) {
+                // 닫기 실패는 읽는 쪽의 오류로 드러난다.
+            }
+        }, timer);
+    }
+
+    private CompletionException bodyTimeout() {
+        return new CompletionException(new HttpTimeoutException(
+                "사용자 정보 응답 본문을 " + requestTimeout.toMillis() + "ms 안에 받지 못했습니다."));
+    }
+
+    /**
+     * 스레드 풀을 종료한다. 진행 중인 작업은 끝까지 실행된다.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 데몬 스레드로 된 고정 크기 풀. 닫지 않아도 프로세스 종료를 막지 않는다.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads 는 1 이상이어야 합니다: " + threads);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "programmers-client-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Set-Cookie 의 Max-Age/Expires 중 가장 이른 만료 시각. 만료 정보가 없으면 기본 유효 기간을 사용한다.
+     * 지우는 쿠키는 {@link #isDeletion} 으로 미리 걸러 낸다.
+     */
+    private static Instant expiresAt(List<String> setCookies) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(DEFAULT_SESSION_TTL);
+        for (String setCookie : setCookies) {
+            try {
+                for (HttpCookie cookie : HttpCookie.parse(setCookie)) {
+                    long maxAge = cookie.getMaxAge();
+                    if (maxAge > 0 && now.plusSeconds(maxAge).isBefore(expiresAt)) {
+                        expiresAt = now.plusSeconds(maxAge);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // 해석할 수 없는 쿠키는 만료 계산에서 제외
+            }
+        }
+        return expiresAt;
+    }
+
+    /**
+     * Max-Age=0(또는 지난 Expires)으로 쿠키를 지우라는 Set-Cookie 인지 확인한다.
+     */
+    private static boolean isDeletion(String setCookie) {
+        try {
+            for (HttpCookie cookie : HttpCookie.parse(setCookie)) {
+                if (cookie.getMaxAge() == 0) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // 해석할 수 없는 쿠키는 지우는 쿠키로 보지 않고 그대로 보낸다.
+        }
+        return false;
+    }
+
+    /**
+     * 서버가 401/403 으로 세션을 거부했을 때 발생한다.
+     */
+    public static class UnauthorizedException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public UnauthorizedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 재시도, 헤지 요청, 서킷 브레이커를 적용해서 요청을 보낸다.
+ * <p>
+ * 재시도는 안전한 경우에만 한다. GET 은 5xx, 429, 연결 오류와 타임아웃에서 재시도하고,
+ * 로그인 같은 POST 는 서버가 처리하지 않았다고 볼 수 있는 429, 503 과 연결 실패에서만 재시도한다.
+ * 대기 시간은 지수 백오프에 full jitter 를 적용하고, 429/503 의 Retry-After 가 더 길면 그 값을 따른다.
+ * <p>
+ * 재시도와 헤지 타이머는 호출한 쪽이 넘긴 executor 에서 실행한다. 공용 ForkJoinPool 은 vCPU 가 적으면 스레드가 하나뿐이라
+ * 본문을 읽느라 막힌 작업 뒤에서 타이머가 밀릴 수 있기 때문이다.
+ */
+public class ResilientSender {
+
+    // p95 를 믿을 수 있을 만큼 표본이 쌓이기 전에는 헤지 요청을 보내지 않는다.
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    private final HttpClient client;
+    private final HostThrottle throttle;
+    private final UpstreamConfig config;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyHistogram hedgedLatency = new LatencyHistogram();
+
+    public ResilientSender(HttpClient client, HostThrottle throttle, UpstreamConfig config) {
+        this(client, throttle, config,
+                new CircuitBreaker(config.getCircuitFailureThreshold(), config.getCircuitOpenDuration()));
+    }
+
+    /**
+     * 서킷 브레이커를 직접 넘긴다. 테스트에서 브레이커의 시계를 바꿀 때 사용한다.
+     */
+    ResilientSender(HttpClient client, HostThrottle throttle, UpstreamConfig config, CircuitBreaker circuitBreaker) {
+        this.client = client;
+        this.throttle = throttle;
+        this.config = config;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * 연결 타임아웃을 적용한 HttpClient 로 만든다.
+     */
+    public static ResilientSender create(HostThrottle throttle, UpstreamConfig config) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(config.getConnectTimeout())
+                .build();
+        return new ResilientSender(client, throttle, config);
+    }
+
+    public UpstreamConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 헤지 기준(p95)을 정하는 데 쓰인 응답 수. 지연 시간은 응답을 받은 스레드에서 따로 기록되므로
+     * 테스트는 이 값으로 기록이 끝났는지 확인한다.
+     */
+    long hedgeSamples() {
+        return hedgedLatency.getCount();
+    }
+
+    /**
+     * 재시도 정책에 따라 요청을 보낸다. 재시도할 수 있는 상태 코드로 끝까지 실패하면 마지막 응답을 돌려준다.
+     * <p>
+     * 서킷 브레이커는 재시도를 포함한 요청 하나를 한 번으로 센다. 처음에만 허용 여부를 묻고,
+     * 재시도가 끝난 최종 결과만 알린다. 오류와 5xx, 429 는 재시도 여부와 관계없이 실패로 센다.
+     *
+     * @param executor 재시도 대기가 끝난 뒤 다음 요청을 시작할 executor
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                       Metrics.Phase phase, Executor executor) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new CircuitBreaker.OpenException("프로그래머스 요청이 연속으로 실패해서 잠시 중단되었습니다: " + request.uri()));
+        }
+        return sendWithRetry(request, bodyHandler, phase, executor, 0).whenComplete((response, error) -> {
+            if (error != null || isUpstreamFailure(response.statusCode())) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        });
+    }
+
+    /**
+     * {@link #send} 와 같지만, 설정에서 켜져 있으면 응답이 지금까지의 p95 보다 늦을 때 같은 GET 을 한 번 더 보내고
+     * 먼저 성공한 응답을 쓴다. 멱등 요청에만 사용해야 한다.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendHedged(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                             Metrics.Phase phase, Executor executor) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> primary = send(request, bodyHandler, phase, executor);
+        primary.thenAccept(response -> hedgedLatency.record(System.nanoTime() - start));
+
+        if (!config.isHedging() || hedgedLatency.getCount() < MIN_HEDGE_SAMPLES) {
+            return primary;
+        }
+
+        long hedgeDelayNanos = hedgedLatency.getValueAtPercentile(95);
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        // 먼저 이 값을 바꾼 쪽이 헤지 여부를 정한다. 첫 요청이 먼저 끝나면 헤지 요청은 보내지 않는다.
+        AtomicBoolean decided = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+
+        primary.whenComplete((response, error) -> {
+            if (decided.compareAndSet(false, true)) {
+                if (error == null) {
+                    result.complete(response);
+                } else {
+                    result.completeExceptionally(unwrap(error));
+                }
+            } else {
+                completeFirst(result, failures, response, error);
+            }
+        });
+
+        CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS, executor).execute(() -> {
+            if (!decided.compareAndSet(false, true)) {
+                return;
+            }
+            Metrics.recordHedge(phase);
+            send(request, bodyHandler, phase, executor)
+                    .whenComplete((response, error) -> completeFirst(result, failures, response, error));
+        });
+        return result;
+    }
+
+    /**
+     * 먼저 성공한 응답으로 완료한다. 늦게 온 응답의 본문은 닫고, 둘 다 실패하면 나중 오류로 실패한다.
+     */
+    private static <T> void completeFirst(CompletableFuture<HttpResponse<T>> result, AtomicInteger failures,
+                                          HttpResponse<T> response, Throwable error) {
+        if (error == null) {
+            if (!result.complete(response)) {
+                closeBody(response);
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            result.completeExceptionally(unwrap(error));
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendWithRetry(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                                 Metrics.Phase phase, Executor executor, int attempt) {
+        boolean idempotent = isIdempotent(request);
+        return sendOnce(request, bodyHandler).handle((response, error) -> {
+            long delayMillis;
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                if (attempt >= config.getMaxRetries() || !isRetryable(cause, idempotent)) {
+                    return CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+                }
+                delayMillis = backoffMillis(attempt);
+            } else if (isRetryable(response.statusCode(), idempotent)) {
+                long retryAfterMillis = retryAfterMillis(response);
+                if (attempt >= config.getMaxRetries() || retryAfterMillis > config.getRetryMaxDelay().toMillis()) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                closeBody(response);
+                delayMillis = Math.max(backoffMillis(attempt), retryAfterMillis);
+            } else {
+                return CompletableFuture.completedFuture(response);
+            }
+
+            Metrics.recordRetry(phase);
+            return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor))
+                    .thenCompose(ignored -> sendWithRetry(request, bodyHandler, phase, executor, attempt + 1));
+        }).thenCompose(Function.identity());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendOnce(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (throttle == null) {
+            return client.sendAsync(request, bodyHandler);
+        }
+        return throttle.submit(request.uri().getHost(), () -> client.sendAsync(request, bodyHandler));
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        return request.method().equals("GET") || request.method().equals("HEAD");
+    }
+
+    private static boolean isRetryable(int statusCode, boolean idempotent) {
+        if (statusCode == 429 || statusCode == 503) {
+            return true;
+        }
+        return idempotent && statusCode >= 500;
+    }
+
+    /**
+     * 서킷 브레이커에 실패로 알릴 상태 코드. POST 는 5xx 에서 재시도하지 않지만 서버 장애인 것은 같다.
+     */
+    private static boolean isUpstreamFailure(int statusCode) {
+        return statusCode >= 500 || statusCode == 429;
+    }
+
+    /**
+     * 연결을 맺지 못한 경우는 요청이 서버에 닿지 않았으므로 POST 도 재시도한다.
+     * 그 밖의 I/O 오류(연결 끊김, 응답 타임아웃)는 GET 만 재시도한다.
+     */
+    private static boolean isRetryable(Throwable cause, boolean idempotent) {
+        if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+        return idempotent && cause instanceof IOException;
+    }
+
+    /**
+     * full jitter: 0 과 min(최대 대기, 기본 대기 * 2^attempt) 사이의 임의 값.
+     */
+    private long backoffMillis(int attempt) {
+        long base = config.getRetryBaseDelay().toMillis();
+        long cap = config.getRetryMaxDelay().toMillis();
+        long exponential = base << Math.min(attempt, 30);
+        long bound = Math.min(cap, exponential < 0 ? cap : exponential);
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * Retry-After 헤더(초 또는 HTTP 날짜)를 밀리초로 바꾼다. 없거나 해석할 수 없으면 0 이다.
+     */
+    static long retryAfterMillis(HttpResponse<?> response) {
+        Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+        if (retryAfter.isEmpty()) {
+            return 0;
+        }
+        String value = retryAfter.get().trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static void closeBody(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable) {
+            try {
+                ((Closeable) response.body()).close();
+            } catch (IOException ignored) {
+                // 버릴 응답이므로 닫기 실패는 무시한다.
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 로그인 세션(Cookie 헤더와 만료 시각)을 계정별 파일로 저장해서 다음 실행에서 로그인을 건너뛸 수 있게 한다.
+ * <p>
+ * 파일 이름은 아이디의 SHA-256 값이고, 디렉토리와 파일은 소유자만 읽고 쓸 수 있게 만든다.
+ * 작업 디렉토리는 워크플로에서 커밋되므로 기본 위치는 사용자 홈 디렉토리 아래이다.
+ */
+public class SessionStore {
+
+    private static final String SESSION_DIR_ENV = "PROGRAMMERS_SESSION_DIR";
+    private static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".programmers-badge", "sessions");
+
+    private final Path directory;
+    private final AtomicInteger savedLogins = new AtomicInteger();
+    private final AtomicInteger logins = new AtomicInteger();
+
+    public SessionStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 환경 변수 PROGRAMMERS_SESSION_DIR 이 있으면 그 디렉토리를, 없으면 기본 디렉토리를 사용한다.
+     */
+    public static SessionStore fromEnvironment() {
+        String dir = System.getenv(SESSION_DIR_ENV);
+        return new SessionStore(dir != null ? Paths.get(dir) : DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * 만료되지 않은 세션이 저장되어 있으면 돌려준다. 파일이 없거나 읽을 수 없으면 비어 있는 값을 돌려준다.
+     */
+    public Optional<Session> load(String id) {
+        Path file = fileOf(id);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            String cookieHeader = properties.getProperty("cookie");
+            String expiresAt = properties.getProperty("expiresAt");
+            if (cookieHeader == null || expiresAt == null) {
+                return Optional.empty();
+            }
+            Session session = new Session(cookieHeader, Instant.ofEpochMilli(Long.parseLong(expiresAt)));
+            return session.isExpired(Instant.now()) ? Optional.empty() : Optional.of(session);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("세션 파일을 읽지 못했습니다: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 세션을 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     */
+    public void save(String id, Session session) throws IOException {
+        createDirectory();
+        Properties properties = new Properties();
+        properties.setProperty("cookie", session.getCookieHeader());
+        properties.setProperty("expiresAt", Long.toString(session.getExpiresAt().toEpochMilli()));
+
+        Path temp = posix()
+                ? Files.createTempFile(directory, "session", ".tmp", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")))
+                : Files.createTempFile(directory, "session", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, fileOf(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 서버가 세션을 거부했을 때 저장된 세션을 지운다.
+     */
+    public void invalidate(String id) {
+        try {
+            Files.deleteIfExists(fileOf(id));
+        } catch (IOException e) {
+            System.err.println("세션 파일을 지우지 못했습니다: " + e.getMessage());
+        }
+    }
+
+    void recordSavedLogin() {
+        savedLogins.incrementAndGet();
+    }
+
+    void recordLogin() {
+        logins.incrementAndGet();
+    }
+
+    /**
+     * 이번 실행에서 저장된 세션 덕분에 생략한 로그인 횟수.
+     */
+    public int getSavedLogins() {
+        return savedLogins.get();
+    }
+
+    /**
+     * 이번 실행에서 실제로 요청한 로그인 횟수.
+     */
+    public int getLogins() {
+        return logins.get();
+    }
+
+    private void createDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        FileAttribute<?>[] attributes = posix()
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"))}
+                : new FileAttribute<?>[0];
+        Files.createDirectories(directory, attributes);
+    }
+
+    private Path fileOf(String id) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                name.append(String.format("%02x", digest[i]));
+            }
+            return directory.resolve(name + ".session");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean posix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * 로그인 결과로 받은 Cookie 헤더 값과 만료 시각.
+     */
+    public static final class Session {
+
+        private final String cookieHeader;
+        private final Instant expiresAt;
+
+        public Session(String cookieHeader, Instant expiresAt) {
+            this.cookieHeader = cookieHeader;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getCookieHeader() {
+            return cookieHeader;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 사용자별 뱃지 통계 기록을 고정 길이 레코드로 이어 붙이는 파일.
+ * <p>
+ * 파일은 16바이트 헤더(매직 {@code BDGH}, 버전, 레코드 길이, 레코드 수) 뒤에 40바이트 레코드
+ * (시각(epoch 초), 사용자 키, 레벨, 점수, 문제 수, 랭킹)가 이어진다. 레코드를 다 쓴 뒤에 헤더의 레코드 수를 늘리므로
+ * 쓰는 도중에 중단되어도 반쯤 쓰인 레코드는 읽히지 않는다.
+ * <p>
+ * 파일은 {@link MappedByteBuffer} 로 읽고 쓴다. 처음 1024개 레코드 영역부터 두 배씩 커지는 영역 단위로 매핑하므로
+ * 매핑 수는 수십 개를 넘지 않고, 파일은 실제 레코드 크기의 두 배를 넘지 않는다.
+ * 사용자별 레코드 번호 목록(시간순)을 메모리에 두고, 구간 조회는 그 목록에서 이진 탐색한 뒤
+ * 매핑된 버퍼에서 값을 바로 읽어 {@link Visitor} 에 넘기므로 레코드마다 객체를 만들지 않는다.
+ * <p>
+ * 목록은 닫을 때 옆 파일({@code <기록 파일>.idx})에 저장해서, 다음에 열 때 모든 레코드를 훑지 않고 읽어 온다.
+ * 인덱스 파일에는 몇 번째 레코드까지 다루는지와 그 마지막 레코드의 시각과 사용자 키를 적어 두고,
+ * 그 뒤에 추가된 레코드만 훑어서 목록에 더한다. 인덱스가 없거나 기록 파일과 맞지 않으면 처음부터 다시 만든다.
+ * <p>
+ * 한 프로세스만 열 수 있도록 파일 잠금을 잡는다. 메서드는 스레드 안전하다.
+ */
+public final class StatsHistory implements Closeable {
+
+    /**
+     * 레코드 하나의 필드를 받는다.
+     */
+    public interface Visitor {
+        void visit(long epochSecond, int level, long score, int solved, long rank);
+    }
+
+    static final int RECORD_SIZE = 40;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x42444748; // "BDGH"
+    private static final short VERSION = 1;
+    private static final int COUNT_OFFSET = 8;
+
+    private static final int TIME_OFFSET = 0;
+    private static final int USER_OFFSET = 8;
+    private static final int LEVEL_OFFSET = 16;
+    private static final int SCORE_OFFSET = 20;
+    private static final int SOLVED_OFFSET = 28;
+    private static final int RANK_OFFSET = 32;
+
+    private static final int FIRST_REGION_RECORDS = 1024;
+    // 매핑 하나는 2GB 를 넘을 수 없으므로 영역 크기는 여기서 더 늘리지 않는다.
+    private static final int MAX_REGION_RECORDS = 1 << 22;
+
+    private static final int INDEX_MAGIC = 0x42444749; // "BDGI"
+    private static final short INDEX_VERSION = 1;
+
+    private static final Path DEFAULT_FILE = Paths.get("result", "history.bin");
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Path indexFile;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private long[] regionStarts = new long[8];
+    private long mappedRecords;
+    private long count;
+    private final Map<Long, UserIndex> users = new HashMap<>();
+    // 디스크의 인덱스 파일이 다루는 레코드 수. 인덱스 파일이 없거나 쓸 수 없으면 -1.
+    private long indexedRecords;
+
+    private StatsHistory(FileChannel channel, FileLock lock, Path indexFile) throws IOException {
+        this.channel = channel;
+        this.lock = lock;
+        this.indexFile = indexFile;
+        boolean created = channel.size() == 0;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) RECORD_SIZE).putLong(COUNT_OFFSET, 0);
+        } else if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION || header.getShort(6) != RECORD_SIZE) {
+            throw new IllegalStateException("통계 기록 파일 형식이 아닙니다.");
+        }
+
+        // 헤더보다 파일이 짧으면(복사 중 잘린 경우 등) 온전한 레코드까지만 사용한다.
+        long available = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        this.count = Math.min(header.getLong(COUNT_OFFSET), Math.max(0, available));
+        mapThrough(count);
+        this.indexedRecords = loadIndex();
+        for (long record = Math.max(0, indexedRecords); record < count; record++) {
+            ByteBuffer region = regionOf(record);
+            int offset = offsetOf(record);
+            users.computeIfAbsent(region.getLong(offset + USER_OFFSET), key -> new UserIndex()).add(record);
+        }
+    }
+
+    /**
+     * 통계 기록 파일을 연다. 없으면 만든다.
+     */
+    public static StatsHistory open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IllegalStateException("다른 프로세스가 통계 기록 파일을 사용 중입니다: " + file);
+            }
+            return new StatsHistory(channel, lock, file.resolveSibling(file.getFileName() + ".idx"));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 환경 변수 BADGE_HISTORY=on 이면 BADGE_HISTORY_FILE(기본값 result/history.bin)을 열고, 아니면 {@code null} 을 돌려준다.
+     */
+    public static StatsHistory fromEnvironment() throws IOException {
+        if (!"on".equalsIgnoreCase(System.getenv("BADGE_HISTORY"))) {
+            return null;
+        }
+        String file = System.getenv("BADGE_HISTORY_FILE");
+        return open(file != null ? Paths.get(file) : DEFAULT_FILE);
+    }
+
+    /**
+     * 아이디로 사용자 키를 만든다. 기록 파일은 커밋될 수 있으므로 아이디 대신 SHA-256 의 앞 8바이트를 저장한다.
+     */
+    public static long userKey(String id) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 통계를 기록한다. 사용자의 마지막 기록과 값이 같으면 기록하지 않는다.
+     * 값이 바뀔 때만 기록하므로 조회할 때는 다음 기록 전까지 값이 유지된 것으로 본다.
+     * <p>
+     * 실행 환경마다 시계가 조금씩 다를 수 있으므로 마지막 기록보다 이른 시각은 마지막 기록의 시각으로 맞춰서
+     * 사용자별 기록이 시간순으로 유지되게 한다.
+     *
+     * @return 기록했으면 {@code true}
+     */
+    public synchronized boolean append(long userKey, Instant time, BadgeStats stats) throws IOException {
+        long epochSecond = time.getEpochSecond();
+        UserIndex index = users.get(userKey);
+        if (index != null) {
+            long last = index.get(index.size - 1);
+            ByteBuffer region = regionOf(last);
+            int offset = offsetOf(last);
+            epochSecond = Math.max(epochSecond, region.getLong(offset + TIME_OFFSET));
+            if (region.getInt(offset + LEVEL_OFFSET) == stats.getLevel()
+                    && region.getLong(offset + SCORE_OFFSET) == stats.getScore()
+                    && region.getInt(offset + SOLVED_OFFSET) == stats.getSolved()
+                    && region.getLong(offset + RANK_OFFSET) == stats.getRank()) {
+                return false;
+            }
+        }
+
+        long record = count;
+        mapThrough(record + 1);
+        ByteBuffer region = regionOf(record);
+        int offset = offsetOf(record);
+        region.putLong(offset + TIME_OFFSET, epochSecond)
+                .putLong(offset + USER_OFFSET, userKey)
+                .putInt(offset + LEVEL_OFFSET, stats.getLevel())
+                .putLong(offset + SCORE_OFFSET, stats.getScore())
+                .putInt(offset + SOLVED_OFFSET, stats.getSolved())
+                .putLong(offset + RANK_OFFSET, stats.getRank());
+        count = record + 1;
+        header.putLong(COUNT_OFFSET, count);
+        users.computeIfAbsent(userKey, key -> new UserIndex()).add(record);
+        return true;
+    }
+
+    /**
+     * {@code from} 이상 {@code to} 미만 시각(epoch 초)의 기록을 시간순으로 넘긴다.
+     *
+     * @return 넘긴 기록 수
+     */
+    public synchronized int scan(long userKey, long from, long to, Visitor visitor) {
+        UserIndex index = users.get(userKey);
+        if (index == null) {
+            return 0;
+        }
+        int visited = 0;
+        for (int i = index.firstAtOrAfter(from); i < index.size; i++) {
+            long record = index.get(i);
+            ByteBuffer region = regionOf(record);
+            int offset = offsetOf(record);
+            long epochSecond = region.getLong(offset + TIME_OFFSET);
+            if (epochSecond >= to) {
+                break;
+            }
+            visitor.visit(epochSecond, region.getInt(offset + LEVEL_OFFSET), region.getLong(offset + SCORE_OFFSET),
+                    region.getInt(offset + SOLVED_OFFSET), region.getLong(offset + RANK_OFFSET));
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * {@code time}(epoch 초) 이전(같은 시각 포함)의 마지막 기록, 즉 그 시각의 값을 넘긴다.
+     *
+     * @return 기록이 있었으면 {@code true}
+     */
+    public synchronized boolean valueAt(long userKey, long time, Visitor visitor) {
+        UserIndex index = users.get(userKey);
+        if (index == null) {
+            return false;
+        }
+        int i = index.firstAtOrAfter(time + 1) - 1;
+        if (i < 0) {
+            return false;
+        }
+        long record = index.get(i);
+        ByteBuffer region = regionOf(record);
+        int offset = offsetOf(record);
+        visitor.visit(region.getLong(offset + TIME_OFFSET), region.getInt(offset + LEVEL_OFFSET), region.getLong(offset + SCORE_OFFSET),
+                region.getInt(offset + SOLVED_OFFSET), region.getLong(offset + RANK_OFFSET));
+        return true;
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * 변경 내용을 디스크에 쓰고 파일을 닫는다. 레코드가 늘었으면 인덱스 파일도 새로 쓴다.
+     * 인덱스는 레코드를 디스크에 쓴 뒤에 쓰므로 기록 파일보다 많은 레코드를 가리키지 않는다.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+            header.force();
+            if (indexedRecords != count) {
+                writeIndex();
+            }
+        } finally {
+            lock.release();
+            channel.close();
+        }
+    }
+
+    /**
+     * 인덱스 파일에서 사용자별 레코드 번호 목록을 읽고, 인덱스가 다루는 레코드 수를 돌려준다.
+     * 파일이 없거나, 기록 파일보다 많은 레코드를 다루거나, 마지막 레코드가 다르거나, 목록이 올바르지 않으면
+     * 읽은 것을 버리고 -1 을 돌려준다.
+     */
+    private long loadIndex() throws IOException {
+        if (!Files.isRegularFile(indexFile)) {
+            return -1;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        try {
+            if (in.getInt() != INDEX_MAGIC || in.getShort() != INDEX_VERSION || in.getShort() != RECORD_SIZE) {
+                return discardIndex();
+            }
+            long indexed = in.getLong();
+            long lastTime = in.getLong();
+            long lastUser = in.getLong();
+            int userCount = in.getInt();
+            if (indexed < 0 || indexed > count || (indexed > 0 && !isRecord(indexed - 1, lastTime, lastUser))) {
+                return discardIndex();
+            }
+            long total = 0;
+            for (int u = 0; u < userCount; u++) {
+                long userKey = in.getLong();
+                int size = in.getInt();
+                if (size <= 0 || size > indexed - total) {
+                    return discardIndex();
+                }
+                int[] records = new int[size];
+                in.asIntBuffer().get(records);
+                in.position(in.position() + size * Integer.BYTES);
+                for (int i = 0; i < size; i++) {
+                    if (records[i] < 0 || records[i] >= indexed || (i > 0 && records[i] <= records[i - 1])) {
+                        return discardIndex();
+                    }
+                }
+                users.put(userKey, new UserIndex(records));
+                total += size;
+            }
+            // 모든 레코드가 정확히 한 사용자의 목록에 있어야 한다.
+            return total == indexed ? indexed : discardIndex();
+        } catch (BufferUnderflowException e) {
+            return discardIndex();
+        }
+    }
+
+    private long discardIndex() {
+        users.clear();
+        return -1;
+    }
+
+    private boolean isRecord(long record, long epochSecond, long userKey) {
+        ByteBuffer region = regionOf(record);
+        int offset = offsetOf(record);
+        return region.getLong(offset + TIME_OFFSET) == epochSecond && region.getLong(offset + USER_OFFSET) == userKey;
+    }
+
+    /**
+     * 사용자별 레코드 번호 목록을 임시 파일에 쓴 뒤 인덱스 파일과 교체한다.
+     */
+    private void writeIndex() throws IOException {
+        Path temp = BadgeWriter.createTempFile(indexFile);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeShort(INDEX_VERSION);
+                out.writeShort(RECORD_SIZE);
+                out.writeLong(count);
+                if (count > 0) {
+                    ByteBuffer region = regionOf(count - 1);
+                    int offset = offsetOf(count - 1);
+                    out.writeLong(region.getLong(offset + TIME_OFFSET));
+                    out.writeLong(region.getLong(offset + USER_OFFSET));
+                } else {
+                    out.writeLong(0);
+                    out.writeLong(0);
+                }
+                out.writeInt(users.size());
+                for (Map.Entry<Long, UserIndex> user : users.entrySet()) {
+                    UserIndex index = user.getValue();
+                    out.writeLong(user.getKey());
+                    out.writeInt(index.size);
+                    for (int i = 0; i < index.size; i++) {
+                        out.writeInt(index.records[i]);
+                    }
+                }
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexedRecords = count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 레코드 번호 {@code records - 1} 까지 쓸 수 있도록 영역을 매핑한다. 파일 끝을 넘는 영역을 매핑하면 파일이 늘어난다.
+     */
+    private void mapThrough(long records) throws IOException {
+        while (mappedRecords < records) {
+            int size = regions.isEmpty() ? FIRST_REGION_RECORDS : (int) Math.min(mappedRecords, MAX_REGION_RECORDS);
+            long position = HEADER_SIZE + mappedRecords * RECORD_SIZE;
+            if (regions.size() == regionStarts.length) {
+                regionStarts = Arrays.copyOf(regionStarts, regionStarts.length * 2);
+            }
+            regionStarts[regions.size()] = mappedRecords;
+            regions.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) size * RECORD_SIZE));
+            mappedRecords += size;
+        }
+    }
+
+    private ByteBuffer regionOf(long record) {
+        return regions.get(regionIndexOf(record));
+    }
+
+    private int offsetOf(long record) {
+        return (int) (record - regionStarts[regionIndexOf(record)]) * RECORD_SIZE;
+    }
+
+    private int regionIndexOf(long record) {
+        int i = Arrays.binarySearch(regionStarts, 0, regions.size(), record);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * 한 사용자의 레코드 번호 목록. 기록은 시간순으로만 추가되므로 정렬되어 있다.
+     */
+    private final class UserIndex {
+
+        private int[] records;
+        private int size;
+
+        UserIndex() {
+            this.records = new int[16];
+        }
+
+        /**
+         * 인덱스 파일에서 읽은 목록으로 만든다.
+         */
+        UserIndex(int[] records) {
+            this.records = records;
+            this.size = records.length;
+        }
+
+        void add(long record) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = (int) record;
+        }
+
+        long get(int i) {
+            return records[i];
+        }
+
+        /**
+         * 시각이 {@code time} 이상인 첫 위치. 없으면 {@code size}.
+         */
+        int firstAtOrAfter(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                long record = records[mid];
+                if (regionOf(record).getLong(offsetOf(record) + TIME_OFFSET) < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 뱃지 템플릿의 고정된 부분(배경 도형, CSS, 글자 속성)을 줄인다.
+ * <p>
+ * 포맷 문자열을 그대로 받아서 포맷 문자열을 돌려주므로 {@code %s} 값 자리와 {@code %%} 는 유지된다.
+ * 렌더러가 시작할 때 한 번만 실행하고 결과는 {@link BadgeRenderer#getDefault()} 가 보관한다.
+ * <ul>
+ *     <li>path 좌표를 정해진 소수 자릿수로 반올림하고, 명령마다 절대/상대 좌표 중 짧은 쪽으로 쓴다</li>
+ *     <li>기본값과 같은 속성({@code opacity:1} 등)과 속성 없는 {@code <g>} 를 없앤다</li>
+ *     <li>같은 클래스의 글자에 반복되는 속성과 인라인 스타일을 클래스 규칙으로 옮기고,
+ *     클래스마다 반복되는 CSS 선언(font-family 등)을 하나의 규칙으로 합친다</li>
+ * </ul>
+ */
+final class SvgMinifier {
+
+    private static final Pattern PROLOG = Pattern.compile("<\\?xml[^>]*\\?>|<!DOCTYPE[^>]*>");
+    private static final Pattern BETWEEN_TAGS = Pattern.compile(">\\s+<");
+    private static final Pattern BARE_GROUP = Pattern.compile("<g>(<path[^>]*/>)</g>");
+    private static final Pattern PATH_DATA = Pattern.compile("(<path[^>]* d=\")([^\"]*)\"");
+    private static final Pattern STYLE = Pattern.compile("<style>(.*?)</style>", Pattern.DOTALL);
+    private static final Pattern STYLE_ATTRIBUTE = Pattern.compile(" style=\"([^\"]*)\"");
+    private static final Pattern TEXT_TAG = Pattern.compile("<text ([^>]*)>");
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w:-]+)=\"([^\"]*)\"");
+    private static final Pattern CLASS_RULE = Pattern.compile("\\.([\\w-]+)\\s*\\{([^{}]*)}");
+    private static final Pattern CSS_PUNCTUATION = Pattern.compile("\\s*([{};:,])\\s*");
+    private static final Pattern LONG_HEX_COLOR = Pattern.compile("#([0-9a-fA-F])\\1([0-9a-fA-F])\\2([0-9a-fA-F])\\3(?![0-9a-fA-F])");
+
+    /**
+     * 렌더링 결과에 영향이 없는 속성. {@code #none} 은 올바른 색이 아니어서 무시되므로 stroke 기본값 none 과 같다.
+     */
+    private static final Pattern NO_OP_ATTRIBUTES = Pattern.compile(
+            " style=\"opacity:1\"| stroke=\"#none\"| stroke-width=\"1\"| version=\"1\\.1\"");
+
+    /**
+     * 클래스 규칙으로 옮길 수 있는 글자 속성. 인라인 style 은 선언 단위로 옮긴다.
+     */
+    private static final Set<String> MOVABLE_TEXT_ATTRIBUTES = Set.of("style", "text-anchor");
+
+    private SvgMinifier() {
+    }
+
+    /**
+     * @param template  {@link BadgeTemplate#SVG_FORMAT} 형식의 포맷 문자열
+     * @param precision path 좌표의 소수 자릿수 (0 이상)
+     */
+    static String minify(String template, int precision) {
+        if (precision < 0 || precision > 6) {
+            throw new IllegalArgumentException("좌표 소수 자릿수는 0 에서 6 사이여야 합니다: " + precision);
+        }
+        String svg = PROLOG.matcher(template).replaceAll("");
+        svg = BETWEEN_TAGS.matcher(svg.trim()).replaceAll("><");
+        if (!svg.contains("xlink:href")) {
+            svg = svg.replaceFirst(" xmlns:xlink=\"[^\"]*\"", "");
+        }
+        svg = NO_OP_ATTRIBUTES.matcher(svg).replaceAll("");
+        svg = minifyStyleAttributes(svg);
+        svg = BARE_GROUP.matcher(svg).replaceAll("$1");
+
+        Matcher path = PATH_DATA.matcher(svg);
+        StringBuilder out = new StringBuilder(svg.length());
+        while (path.find()) {
+            path.appendReplacement(out, Matcher.quoteReplacement(path.group(1) + minifyPath(path.group(2), precision) + "\""));
+        }
+        path.appendTail(out);
+
+        svg = moveTextAttributesToClasses(out.toString());
+        return LONG_HEX_COLOR.matcher(svg).replaceAll("#$1$2$3");
+    }
+
+    private static String minifyStyleAttributes(String svg) {
+        Matcher style = STYLE_ATTRIBUTE.matcher(svg);
+        StringBuilder out = new StringBuilder(svg.length());
+        while (style.find()) {
+            String declarations = String.join(";", declarations(style.group(1)));
+            style.appendReplacement(out, Matcher.quoteReplacement(" style=\"" + declarations + "\""));
+        }
+        style.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * 같은 클래스의 모든 {@code <text>} 에서 값이 같은 속성을 클래스 규칙으로 옮긴 뒤 CSS 를 합친다.
+     */
+    private static String moveTextAttributesToClasses(String svg) {
+        Matcher style = STYLE.matcher(svg);
+        if (!style.find()) {
+            return svg;
+        }
+
+        // 클래스별로 모든 글자에 공통인 속성. 값이 다른 글자가 하나라도 있으면 빈 값("")으로 표시한다.
+        Map<String, Map<String, String>> common = new LinkedHashMap<>();
+        Matcher text = TEXT_TAG.matcher(svg);
+        while (text.find()) {
+            Map<String, String> attributes = attributes(text.group(1));
+            String className = attributes.get("class");
+            if (className == null) {
+                continue;
+            }
+            Map<String, String> shared = common.get(className);
+            if (shared == null) {
+                shared = new LinkedHashMap<>();
+                for (String name : MOVABLE_TEXT_ATTRIBUTES) {
+                    if (attributes.containsKey(name)) {
+                        shared.put(name, attributes.get(name));
+                    }
+                }
+                common.put(className, shared);
+            } else {
+                shared.replaceAll((name, value) -> value.equals(attributes.get(name)) ? value : "");
+            }
+        }
+
+        Matcher rewrite = TEXT_TAG.matcher(svg);
+        StringBuilder out = new StringBuilder(svg.length());
+        while (rewrite.find()) {
+            Map<String, String> attributes = attributes(rewrite.group(1));
+            Map<String, String> shared = common.getOrDefault(attributes.get("class"), Map.of());
+            StringBuilder tag = new StringBuilder("<text");
+            attributes.forEach((name, value) -> {
+                if (shared.getOrDefault(name, "").isEmpty()) {
+                    tag.append(' ').append(name).append("=\"").append(value).append('"');
+                }
+            });
+            rewrite.appendReplacement(out, Matcher.quoteReplacement(tag.append('>').toString()));
+        }
+        rewrite.appendTail(out);
+        svg = out.toString();
+
+        Map<String, List<String>> moved = new LinkedHashMap<>();
+        common.forEach((className, shared) -> {
+            List<String> declarations = new ArrayList<>();
+            shared.forEach((name, value) -> {
+                if (value.isEmpty()) {
+                    return;
+                }
+                if (name.equals("style")) {
+                    declarations.addAll(declarations(value));
+                } else {
+                    declarations.add(name + ":" + value);
+                }
+            });
+            moved.put(className, declarations);
+        });
+
+        style = STYLE.matcher(svg);
+        style.find();
+        return svg.substring(0, style.start(1)) + mergeCss(style.group(1), moved) + svg.substring(style.end(1));
+    }
+
+    /**
+     * 단일 클래스 규칙의 선언을 모아서, 같은 선언을 쓰는 클래스끼리 하나의 규칙({@code .a,.b{...}})으로 합친다.
+     * 여러 선택자 규칙과 {@code @keyframes} 같은 나머지 규칙은 공백만 줄여서 합친 규칙 뒤에 원래 순서대로 둔다.
+     */
+    private static String mergeCss(String css, Map<String, List<String>> extra) {
+        Map<String, Set<String>> classesByDeclaration = new LinkedHashMap<>();
+        Map<String, List<String>> remaining = new LinkedHashMap<>(extra);
+        StringBuilder rest = new StringBuilder();
+        Matcher rule = CLASS_RULE.matcher(css);
+        int last = 0;
+        while (rule.find()) {
+            // "}" 바로 뒤가 아닌 위치(예: "@keyframes" 안)나 여러 선택자 규칙의 일부는 건드리지 않는다.
+            String before = css.substring(last, rule.start());
+            if (!before.isBlank() || (rule.start() > 0 && css.charAt(rule.start() - 1) == ',')) {
+                continue;
+            }
+            rest.append(before);
+            // 옮겨 온 인라인 스타일이 원래 클래스 규칙보다 우선하므로 같은 속성의 클래스 선언은 버린다.
+            List<String> moved = remaining.getOrDefault(rule.group(1), List.of());
+            List<String> declarations = new ArrayList<>();
+            for (String declaration : declarations(rule.group(2))) {
+                if (moved.stream().noneMatch(m -> property(m).equals(property(declaration)))) {
+                    declarations.add(declaration);
+                }
+            }
+            declarations.addAll(moved);
+            for (String declaration : declarations) {
+                classesByDeclaration.computeIfAbsent(declaration, key -> new LinkedHashSet<>()).add("." + rule.group(1));
+            }
+            remaining.remove(rule.group(1));
+            last = rule.end();
+        }
+        rest.append(css.substring(last));
+        // 규칙이 없던 클래스로 옮긴 선언
+        remaining.forEach((className, declarations) -> {
+            for (String declaration : declarations) {
+                classesByDeclaration.computeIfAbsent(declaration, key -> new LinkedHashSet<>()).add("." + className);
+            }
+        });
+
+        Map<Set<String>, List<String>> rules = new LinkedHashMap<>();
+        classesByDeclaration.forEach((declaration, classes) ->
+                rules.computeIfAbsent(classes, key -> new ArrayList<>()).add(declaration));
+
+        StringBuilder merged = new StringBuilder();
+        rules.forEach((classes, declarations) ->
+                merged.append(String.join(",", classes)).append('{').append(String.join(";", declarations)).append('}'));
+        String others = CSS_PUNCTUATION.matcher(rest.toString().trim()).replaceAll("$1").replace(";}", "}");
+        return merged + others;
+    }
+
+    private static List<String> declarations(String block) {
+        List<String> declarations = new ArrayList<>();
+        for (String declaration : block.split(";")) {
+            String trimmed = CSS_PUNCTUATION.matcher(declaration.trim()).replaceAll("$1");
+            if (!trimmed.isEmpty()) {
+                declarations.add(trimmed);
+            }
+        }
+        return declarations;
+    }
+
+    private static String property(String declaration) {
+        return declaration.substring(0, Math.max(0, declaration.indexOf(':')));
+    }
+
+    private static Map<String, String> attributes(String tag) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        Matcher attribute = ATTRIBUTE.matcher(tag);
+        while (attribute.find()) {
+            attributes.put(attribute.group(1), attribute.group(2));
+        }
+        return attributes;
+    }
+
+    /**
+     * path 데이터를 다시 쓴다. 좌표는 먼저 절대 좌표로 반올림한 뒤 상대 좌표를 계산하므로 반올림 오차가 쌓이지 않는다.
+     * 호(A) 명령은 지원하지 않는다.
+     */
+    static String minifyPath(String data, int precision) {
+        long scale = pow10(precision);
+        PathTokenizer tokens = new PathTokenizer(data);
+        StringBuilder out = new StringBuilder(data.length() / 2);
+        // 원래 좌표(상대 좌표 해석용)와, scale 을 곱해 반올림한 정수 좌표(출력용)를 따로 따라간다.
+        double rawX = 0;
+        double rawY = 0;
+        double rawStartX = 0;
+        double rawStartY = 0;
+        long x = 0;
+        long y = 0;
+        long startX = 0;
+        long startY = 0;
+        char previous = 0;
+        char command = 0;
+
+        while (tokens.hasNext()) {
+            if (tokens.nextIsCommand()) {
+                command = tokens.nextCommand();
+            } else if (command == 0) {
+                throw new IllegalArgumentException("path 데이터에 명령이 없습니다: " + data);
+            }
+            boolean relative = Character.isLowerCase(command);
+            char upper = Character.toUpperCase(command);
+
+            if (upper == 'Z') {
+                out.append('z');
+                previous = 'z';
+                rawX = rawStartX;
+                rawY = rawStartY;
+                x = startX;
+                y = startY;
+                command = 0;
+                continue;
+            }
+
+            int count = parameterCount(upper);
+            double[] raw = new double[count];
+            long[] absolute = new long[count];
+            long[] offsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                boolean isY = upper == 'V' || (upper != 'H' && i % 2 == 1);
+                raw[i] = tokens.nextNumber() + (relative ? (isY ? rawY : rawX) : 0);
+                absolute[i] = Math.round(raw[i] * scale);
+                offsets[i] = absolute[i] - (isY ? y : x);
+            }
+
+            String absoluteText = numbers(absolute, precision);
+            String relativeText = numbers(offsets, precision);
+            char lower = Character.toLowerCase(upper);
+            if (segmentLength(out, lower, previous, relativeText) < segmentLength(out, upper, previous, absoluteText)) {
+                previous = appendSegment(out, lower, previous, relativeText);
+            } else {
+                previous = appendSegment(out, upper, previous, absoluteText);
+            }
+
+            if (upper == 'H') {
+                rawX = raw[0];
+                x = absolute[0];
+            } else if (upper == 'V') {
+                rawY = raw[0];
+                y = absolute[0];
+            } else {
+                rawX = raw[count - 2];
+                rawY = raw[count - 1];
+                x = absolute[count - 2];
+                y = absolute[count - 1];
+            }
+            if (upper == 'M') {
+                rawStartX = rawX;
+                rawStartY = rawY;
+                startX = x;
+                startY = y;
+                // M 뒤에 이어지는 좌표는 L 로 해석한다.
+                command = relative ? 'l' : 'L';
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 명령을 이어 쓸 때 늘어나는 길이. 앞과 같은 명령이면 문자 대신 필요한 경우에만 구분자가 붙는다.
+     */
+    private static int segmentLength(StringBuilder out, char command, char previous, String numbers) {
+        if (command != previous) {
+            return 1 + numbers.length();
+        }
+        return (needsSeparator(out, numbers) ? 1 : 0) + numbers.length();
+    }
+
+    /**
+     * 명령과 좌표를 쓰고, 다음에 명령 문자 없이 좌표가 이어질 때 적용되는 명령을 돌려준다.
+     */
+    private static char appendSegment(StringBuilder out, char command, char previous, String numbers) {
+        if (command != previous) {
+            out.append(command);
+        } else if (needsSeparator(out, numbers)) {
+            out.append(' ');
+        }
+        out.append(numbers);
+        if (command == 'M') {
+            return 'L';
+        }
+        return command == 'm' ? 'l' : command;
+    }
+
+    private static boolean needsSeparator(StringBuilder out, String numbers) {
+        char first = numbers.charAt(0);
+        return first != '-' && !(first == '.' && lastNumberHasDot(out));
+    }
+
+    private static boolean lastNumberHasDot(CharSequence out) {
+        for (int i = out.length() - 1; i >= 0; i--) {
+            char c = out.charAt(i);
+            if (c == '.') {
+                return true;
+            }
+            if (!Character.isDigit(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 숫자들을 가장 짧게 이어 쓴다. 음수 부호나, 앞 숫자에 소수점이 있을 때의 소수점이 구분자를 대신한다.
+     */
+    private static String numbers(long[] values, int precision) {
+        StringBuilder out = new StringBuilder();
+        boolean previousHasDot = false;
+        for (int i = 0; i < values.length; i++) {
+            String number = number(values[i], precision);
+            if (i > 0 && number.charAt(0) != '-' && !(number.charAt(0) == '.' && previousHasDot)) {
+                out.append(' ');
+            }
+            out.append(number);
+            previousHasDot = number.indexOf('.') >= 0;
+        }
+        return out.toString();
+    }
+
+    /**
+     * scale 을 곱한 정수를 끝의 0 과 앞의 0 없이 쓴다. 예: 1.50 → 1.5, 0.5 → .5, -0.5 → -.5
+     */
+    static String number(long scaled, int precision) {
+        long scale = pow10(precision);
+        long magnitude = Math.abs(scaled);
+        long whole = magnitude / scale;
+        long fraction = magnitude % scale;
+        StringBuilder out = new StringBuilder();
+        if (scaled < 0) {
+            out.append('-');
+        }
+        if (whole != 0 || fraction == 0) {
+            out.append(whole);
+        }
+        if (fraction != 0) {
+            String digits = Long.toString(fraction + scale).substring(1);
+            int end = digits.length();
+            while (digits.charAt(end - 1) == '0') {
+                end--;
+            }
+            out.append('.').append(digits, 0, end);
+        }
+        return out.toString();
+    }
+
+    private static int parameterCount(char command) {
+        switch (command) {
+            case 'M':
+            case 'L':
+            case 'T':
+                return 2;
+            case 'H':
+            case 'V':
+                return 1;
+            case 'S':
+            case 'Q':
+                return 4;
+            case 'C':
+                return 6;
+            default:
+                throw new IllegalArgumentException("지원하지 않는 path 명령: " + command);
+        }
+    }
+
+    private static long pow10(int precision) {
+        long scale = 1;
+        for (int i = 0; i < precision; i++) {
+            scale *= 10;
+        }
+        return scale;
+    }
+
+    /**
+     * path 데이터를 명령 문자와 숫자로 나눈다. 구분자(공백, 쉼표)는 건너뛴다.
+     */
+    private static final class PathTokenizer {
+
+        private static final Pattern NUMBER = Pattern.compile("[-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+
+        private final String data;
+        private final Matcher number;
+        private int pos;
+
+        PathTokenizer(String data) {
+            this.data = data;
+            this.number = NUMBER.matcher(data);
+        }
+
+        boolean hasNext() {
+            skipSeparators();
+            return pos < data.length();
+        }
+
+        boolean nextIsCommand() {
+            skipSeparators();
+            return Character.isLetter(data.charAt(pos)) && data.charAt(pos) != 'e' && data.charAt(pos) != 'E';
+        }
+
+        char nextCommand() {
+            return data.charAt(pos++);
+        }
+
+        double nextNumber() {
+            skipSeparators();
+            if (pos >= data.length() || !number.find(pos) || number.start() != pos) {
+                throw new IllegalArgumentException("path 데이터에 숫자가 필요합니다: " + data.substring(Math.min(pos, data.length())));
+            }
+            pos = number.end();
+            return Double.parseDouble(number.group());
+        }
+
+        private void skipSeparators() {
+            while (pos < data.length() && (Character.isWhitespace(data.charAt(pos)) || data.charAt(pos) == ',')) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 기본 뱃지의 네 값 옆에 {@link StatsHistory} 로 그린 스파크라인과 최근 변화량("7일 +120점")을 덧붙인 뱃지.
+ * <p>
+ * 기간의 끝은 다음 UTC 자정으로 맞춘다. 같은 날 여러 번 실행해도 통계가 같으면 같은 뱃지가 나오므로
+ * {@link BadgeWriter} 가 바뀌지 않은 뱃지를 다시 쓰지 않는다.
+ */
+final class TrendBadge {
+
+    private static final int POINTS = 48;
+    private static final int SPARK_WIDTH = 70;
+    private static final int SPARK_HEIGHT = 20;
+
+    /**
+     * 값 자리마다 스파크라인 왼쪽 위 좌표와 변화량 글자 위치(값 아래). 기본 템플릿의 네 칸 배치에 맞춘 값이다.
+     */
+    private static final int[][] LAYOUT = {
+            // sparkX, sparkY, deltaX, deltaY
+            {180, 27, 60, 98},
+            {460, 27, 360, 98},
+            {180, 130, 65, 203},
+            {460, 130, 370, 203},
+    };
+    private static final String[] UNITS = {"", "점", "문제", "위"};
+
+    private static final String STYLE = "<style>"
+            + ".trend{font-size:11px;font-weight:bold;fill:#0078ff;text-anchor:middle;"
+            + "font-family:-apple-system,BlinkMacSystemFont,Segoe UI,Helvetica,Arial,sans-serif}"
+            + ".spark{fill:none;stroke:#0078ff;stroke-width:1.5;stroke-linejoin:round;stroke-linecap:round}"
+            + "</style>";
+
+    private final BadgeRenderer renderer;
+    private final Duration sparklineWindow;
+    private final Duration deltaWindow;
+
+    /**
+     * @param sparklineWindow 스파크라인으로 그릴 기간
+     * @param deltaWindow     변화량을 계산할 기간
+     */
+    TrendBadge(BadgeRenderer renderer, Duration sparklineWindow, Duration deltaWindow) {
+        this.renderer = renderer;
+        this.sparklineWindow = sparklineWindow;
+        this.deltaWindow = deltaWindow;
+    }
+
+    /**
+     * 환경 변수 BADGE_TREND_DAYS(스파크라인 기간, 기본값 30)와 BADGE_TREND_DELTA_DAYS(변화량 기간, 기본값 7)로 만든다.
+     */
+    static TrendBadge fromEnvironment() {
+        return new TrendBadge(BadgeRenderer.getDefault(),
+                Duration.ofDays(BatchRunner.intEnv("BADGE_TREND_DAYS", 30)),
+                Duration.ofDays(BatchRunner.intEnv("BADGE_TREND_DELTA_DAYS", 7)));
+    }
+
+    /**
+     * 통계를 기록하고 추세 뱃지를 바뀌었을 때만 쓴다.
+     *
+     * @param id 프로그래머스 아이디, 기록 파일에는 {@link StatsHistory#userKey} 로 저장된다
+     */
+    BadgeWriter.Result write(BadgeWriter writer, Path target, StatsHistory history, String id, BadgeStats stats,
+                             Instant now) throws IOException {
+        long userKey = StatsHistory.userKey(id);
+        history.append(userKey, now, stats);
+        return writer.write(target, stats, render(stats, history, userKey, now));
+    }
+
+    /**
+     * 기록된 통계로 추세 뱃지를 렌더링한다. 현재 값은 {@code stats} 를 사용한다.
+     */
+    byte[] render(BadgeStats stats, StatsHistory history, long userKey, Instant now) {
+        long end = now.truncatedTo(ChronoUnit.DAYS).plus(Duration.ofDays(1)).getEpochSecond();
+        Series series = new Series(end - sparklineWindow.getSeconds(), end);
+        series.valueAt(history, userKey, series.start);
+        history.scan(userKey, series.start, end, series);
+        series.finish();
+
+        Series baseline = new Series(0, 0);
+        long deltaStart = end - deltaWindow.getSeconds();
+        if (!baseline.valueAt(history, userKey, deltaStart)) {
+            // 기간 중에 기록이 시작되었으면 첫 기록과 비교한다.
+            history.scan(userKey, deltaStart, end, baseline);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(renderer.maxRenderedLength() + 2048);
+        try {
+            renderer.render(out, new byte[BadgeRenderer.MAX_LONG_DIGITS],
+                    stats.getLevel(), stats.getScore(), stats.getSolved(), stats.getRank());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String svg = out.toString(StandardCharsets.UTF_8);
+        int close = svg.lastIndexOf("</svg>");
+
+        long[] current = {stats.getLevel(), stats.getScore(), stats.getSolved(), stats.getRank()};
+        StringBuilder trend = new StringBuilder(STYLE);
+        for (BadgeRenderer.Slot slot : BadgeRenderer.Slot.values()) {
+            int i = slot.ordinal();
+            boolean inverted = slot == BadgeRenderer.Slot.RANK;
+            appendSparkline(trend, series.values[i], LAYOUT[i][0], LAYOUT[i][1], inverted);
+            if (baseline.seen) {
+                appendDelta(trend, current[i] - baseline.first[i], UNITS[i], LAYOUT[i][2], LAYOUT[i][3], inverted);
+            }
+        }
+        return (svg.substring(0, close) + trend + svg.substring(close)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendDelta(StringBuilder out, long delta, String unit, int x, int y, boolean rank) {
+        out.append("<text class=\"trend\" x=\"").append(x).append("\" y=\"").append(y).append("\">")
+                .append(deltaWindow.toDays()).append("일 ");
+        if (delta == 0) {
+            out.append("±0");
+        } else if (rank) {
+            // 랭킹은 숫자가 작아질수록 오른 것이다.
+            out.append(delta < 0 ? "▲" : "▼").append(Math.abs(delta));
+        } else {
+            out.append(delta > 0 ? "+" : "").append(delta);
+        }
+        out.append(unit).append("</text>");
+    }
+
+    /**
+     * 값이 있는 구간만 꺾은선으로 그린다. 값이 하나도 없으면 그리지 않는다.
+     */
+    private static void appendSparkline(StringBuilder out, double[] values, int x, int y, boolean inverted) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int first = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+                if (first < 0) {
+                    first = i;
+                }
+            }
+        }
+        if (first < 0) {
+            return;
+        }
+        out.append("<polyline class=\"spark\" points=\"");
+        for (int i = first; i < values.length; i++) {
+            double ratio = max > min ? (values[i] - min) / (max - min) : 0.5;
+            if (inverted) {
+                ratio = 1 - ratio;
+            }
+            long px = Math.round((x + (double) SPARK_WIDTH * i / (values.length - 1)) * 10);
+            long py = Math.round((y + SPARK_HEIGHT * (1 - ratio)) * 10);
+            if (i > first) {
+                out.append(' ');
+            }
+            out.append(SvgMinifier.number(px, 1)).append(',').append(SvgMinifier.number(py, 1));
+        }
+        out.append("\"/>");
+    }
+
+    /**
+     * 기간을 {@link #POINTS} 개 구간으로 나누고, 각 구간 끝 시점의 값을 모은다.
+     * 기록은 값이 바뀔 때만 있으므로 기록이 없는 구간은 앞 구간의 값을 이어 받는다.
+     * 처음 받은 값은 {@link #first} 에 따로 남긴다.
+     */
+    private static final class Series implements StatsHistory.Visitor {
+
+        final long start;
+        final long end;
+        final double[][] values = new double[BadgeRenderer.Slot.values().length][POINTS];
+        final long[] first = new long[BadgeRenderer.Slot.values().length];
+        boolean seen;
+        private final double[] current = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        private int next;
+
+        Series(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean valueAt(StatsHistory history, long userKey, long time) {
+            return history.valueAt(userKey, time, this);
+        }
+
+        @Override
+        public void visit(long epochSecond, int level, long score, int solved, long rank) {
+            if (!seen) {
+                seen = true;
+                first[0] = level;
+                first[1] = score;
+                first[2] = solved;
+                first[3] = rank;
+            }
+            if (end > start) {
+                int bucket = (int) Math.max(0, Math.min(POINTS - 1, (epochSecond - start) * POINTS / (end - start)));
+                fillUntil(bucket);
+            }
+            current[0] = level;
+            current[1] = score;
+            current[2] = solved;
+            current[3] = rank;
+        }
+
+        void finish() {
+            fillUntil(POINTS);
+        }
+
+        private void fillUntil(int bucket) {
+            for (; next < bucket; next++) {
+                for (int i = 0; i < current.length; i++) {
+                    values[i][next] = current[i];
+                }
+            }
+        }
+    }
+}
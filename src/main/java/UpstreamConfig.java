@@ -0,0 +1,86 @@
+import java.time.Duration;
+
+/**
+ * 프로그래머스 요청의 타임아웃, 재시도, 헤지 요청, 서킷 브레이커 설정.
+ */
+public final class UpstreamConfig {
+
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final Duration retryBaseDelay;
+    private final Duration retryMaxDelay;
+    private final boolean hedging;
+    private final int circuitFailureThreshold;
+    private final Duration circuitOpenDuration;
+
+    public UpstreamConfig(Duration connectTimeout, Duration requestTimeout,
+                          int maxRetries, Duration retryBaseDelay, Duration retryMaxDelay,
+                          boolean hedging, int circuitFailureThreshold, Duration circuitOpenDuration) {
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.hedging = hedging;
+        this.circuitFailureThreshold = circuitFailureThreshold;
+        this.circuitOpenDuration = circuitOpenDuration;
+    }
+
+    /**
+     * 환경 변수로 설정을 만든다. 없는 값은 기본값을 사용한다.
+     * <ul>
+     *     <li>BADGE_CONNECT_TIMEOUT_MS (기본값 5000)</li>
+     *     <li>BADGE_REQUEST_TIMEOUT_MS (기본값 10000): 응답 헤더를 받을 때까지의 시간.
+     *     사용자 정보 요청은 헤더를 받은 뒤 본문을 다 읽는 데에도 같은 제한 시간을 둔다</li>
+     *     <li>BADGE_MAX_RETRIES (기본값 3)</li>
+     *     <li>BADGE_RETRY_BASE_MS (기본값 200), BADGE_RETRY_MAX_MS (기본값 5000)</li>
+     *     <li>BADGE_HEDGE (기본값 off): on 이면 사용자 정보 요청이 p95 를 넘을 때 두 번째 GET 을 보낸다</li>
+     *     <li>BADGE_CIRCUIT_FAILURES (기본값 5), BADGE_CIRCUIT_OPEN_MS (기본값 30000)</li>
+     * </ul>
+     */
+    public static UpstreamConfig fromEnvironment() {
+        return new UpstreamConfig(
+                Duration.ofMillis(BatchRunner.intEnv("BADGE_CONNECT_TIMEOUT_MS", 5_000)),
+                Duration.ofMillis(BatchRunner.intEnv("BADGE_REQUEST_TIMEOUT_MS", 10_000)),
+                BatchRunner.intEnv("BADGE_MAX_RETRIES", 3),
+                Duration.ofMillis(BatchRunner.intEnv("BADGE_RETRY_BASE_MS", 200)),
+                Duration.ofMillis(BatchRunner.intEnv("BADGE_RETRY_MAX_MS", 5_000)),
+                "on".equalsIgnoreCase(System.getenv("BADGE_HEDGE")),
+                BatchRunner.intEnv("BADGE_CIRCUIT_FAILURES", 5),
+                Duration.ofMillis(BatchRunner.intEnv("BADGE_CIRCUIT_OPEN_MS", 30_000))
+        );
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getRetryBaseDelay() {
+        return retryBaseDelay;
+    }
+
+    public Duration getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public Duration getCircuitOpenDuration() {
+        return circuitOpenDuration;
+    }
+}
@@ -0,0 +1,141 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@code /api/v1/users/record} 응답에서 뱃지에 필요한 네 값만 스트리밍으로 읽는다.
+ * <p>
+ * 응답 전체를 Map 으로 만들지 않고 {@link JsonParser} 로 토큰을 따라가며, 필요 없는 객체와 배열은 통째로 건너뛴다.
+ * 값이 없거나 숫자가 아니면 어떤 필드가 문제인지 알려주는 예외를 던진다.
+ */
+public final class UserRecordParser {
+
+    private static final int LEVEL = 1;
+    private static final int SCORE = 1 << 1;
+    private static final int SOLVED = 1 << 2;
+    private static final int RANK = 1 << 3;
+    private static final int ALL = LEVEL | SCORE | SOLVED | RANK;
+
+    // JsonFactory 는 스레드 안전하고 내부 버퍼 재사용을 위해 공유하는 것이 좋다.
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * 응답 본문을 읽어 통계를 만든다. 필요한 값을 모두 읽으면 나머지는 읽지 않고 스트림을 닫는다.
+     */
+    public BadgeStats parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * 이미 받아 둔 응답 본문을 읽어 통계를 만든다.
+     */
+    public BadgeStats parse(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    private BadgeStats parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("사용자 정보 응답이 JSON 객체가 아닙니다.");
+        }
+
+        int found = 0;
+        int level = 0;
+        long score = 0;
+        int solved = 0;
+        long rank = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String section = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.START_OBJECT
+                    || !(section.equals("skillCheck") || section.equals("ranking") || section.equals("codingTest"))) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (section.equals("skillCheck") && field.equals("level")) {
+                    level = readInt(parser, "skillCheck.level");
+                    found |= LEVEL;
+                } else if (section.equals("ranking") && field.equals("score")) {
+                    score = readNumber(parser, "ranking.score");
+                    found |= SCORE;
+                } else if (section.equals("ranking") && field.equals("rank")) {
+                    rank = readNumber(parser, "ranking.rank");
+                    found |= RANK;
+                } else if (section.equals("codingTest") && field.equals("solved")) {
+                    solved = readInt(parser, "codingTest.solved");
+                    found |= SOLVED;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (found == ALL) {
+                // 필요한 값을 모두 읽었으면 나머지 응답은 읽지 않는다.
+                break;
+            }
+        }
+
+        if (found != ALL) {
+            throw new IllegalStateException("사용자 정보 응답에 값이 없습니다: " + missingFields(found));
+        }
+        return new BadgeStats(level, score, solved, rank);
+    }
+
+    private static int readInt(JsonParser parser, String path) throws IOException {
+        long value = readNumber(parser, path);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalStateException(path + " 값이 범위를 벗어났습니다: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long readNumber(JsonParser parser, String path) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                    throw new IllegalStateException(path + " 값이 범위를 벗어났습니다: " + parser.getText());
+                }
+                return parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                throw new IllegalStateException(path + " 값이 정수가 아닙니다: " + parser.getText());
+            case VALUE_STRING:
+                try {
+                    return Long.parseLong(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException(path + " 값이 숫자가 아닙니다: " + parser.getText());
+                }
+            case VALUE_NULL:
+                throw new IllegalStateException("사용자 정보 응답에 값이 없습니다: " + path);
+            default:
+                throw new IllegalStateException(path + " 값이 숫자가 아닙니다: " + parser.currentToken());
+        }
+    }
+
+    private static String missingFields(int found) {
+        StringBuilder missing = new StringBuilder();
+        if ((found & LEVEL) == 0) {
+            missing.append("skillCheck.level ");
+        }
+        if ((found & SCORE) == 0) {
+            missing.append("ranking.score ");
+        }
+        if ((found & SOLVED) == 0) {
+            missing.append("codingTest.solved ");
+        }
+        if ((found & RANK) == 0) {
+            missing.append("ranking.rank ");
+        }
+        return missing.toString().trim();
+    }
+}
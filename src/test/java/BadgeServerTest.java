@@ -0,0 +1,180 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 프로그래머스 대신 테스트가 결과를 정하는 로더로 {@link BadgeCache} 와 로컬에 띄운 {@link BadgeServer} 를 확인한다.
+ */
+class BadgeServerTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final byte[] SVG = svg("v1");
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private BadgeServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void concurrentRequestsShareOneLoad() {
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        BadgeCache cache = new BadgeCache(counting(user -> pending), HOUR, 10);
+
+        CompletableFuture<BadgeCache.Entry> first = cache.get("alice");
+        CompletableFuture<BadgeCache.Entry> second = cache.get("alice");
+        assertEquals(1, loads.get());
+        assertFalse(first.isDone());
+
+        pending.complete(SVG);
+        assertSame(first.join(), second.join());
+        assertSame(first.join(), cache.get("alice").join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void servesStaleBadgeWhileRefreshing() {
+        CompletableFuture<byte[]> refresh = new CompletableFuture<>();
+        BadgeCache cache = new BadgeCache(counting(user -> loads.get() == 1
+                ? CompletableFuture.completedFuture(SVG) : refresh), Duration.ZERO, 10);
+        cache.get("alice").join();
+
+        BadgeCache.Entry stale = cache.get("alice").join();
+        assertArrayEquals(SVG, stale.getSvg());
+        assertEquals(2, loads.get());
+
+        refresh.complete(svg("v2"));
+        assertArrayEquals(svg("v2"), cache.get("alice").join().getSvg());
+    }
+
+    @Test
+    void backsOffAfterFailedRefresh() {
+        BadgeCache cache = new BadgeCache(counting(user -> loads.get() == 1
+                ? CompletableFuture.completedFuture(SVG)
+                : CompletableFuture.failedFuture(new IllegalStateException("점검 중"))), Duration.ZERO, 10, HOUR);
+        cache.get("alice").join();
+
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(SVG, cache.get("alice").join().getSvg());
+        }
+        assertEquals(2, loads.get(), "새로 고침 실패 뒤에도 요청마다 다시 불러왔습니다.");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBadge() {
+        BadgeCache cache = new BadgeCache(counting(user -> CompletableFuture.completedFuture(svg(user))), HOUR, 2);
+
+        cache.get("alice").join();
+        cache.get("bob").join();
+        cache.get("alice").join();
+        cache.get("carol").join();
+        assertEquals(3, loads.get());
+
+        cache.get("alice").join();
+        assertEquals(3, loads.get());
+        cache.get("bob").join();
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void answersNotModifiedForWeakEtag() throws Exception {
+        start(user -> CompletableFuture.completedFuture(SVG));
+
+        HttpResponse<byte[]> first = send(request("alice").GET());
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> strong = send(request("alice").header("If-None-Match", etag).GET());
+        assertEquals(304, strong.statusCode());
+        HttpResponse<byte[]> weak = send(request("alice").header("If-None-Match", "\"other\", W/" + etag).GET());
+        assertEquals(304, weak.statusCode());
+        assertEquals(0, weak.body().length);
+    }
+
+    @Test
+    void sendsGzipOnlyWhenAccepted() throws Exception {
+        start(user -> CompletableFuture.completedFuture(SVG));
+
+        HttpResponse<byte[]> gzip = send(request("alice").header("Accept-Encoding", "br, gzip").GET());
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+            assertArrayEquals(SVG, in.readAllBytes());
+        }
+
+        HttpResponse<byte[]> refused = send(request("alice").header("Accept-Encoding", "gzip;q=0, br").GET());
+        assertTrue(refused.headers().firstValue("Content-Encoding").isEmpty());
+        assertArrayEquals(SVG, refused.body());
+        assertFalse(refused.headers().firstValue("ETag").equals(gzip.headers().firstValue("ETag")));
+    }
+
+    @Test
+    void headSendsContentLengthWithoutBody() throws Exception {
+        start(user -> CompletableFuture.completedFuture(SVG));
+
+        HttpResponse<byte[]> head = send(request("alice").method("HEAD", HttpRequest.BodyPublishers.noBody()));
+
+        assertEquals(200, head.statusCode());
+        assertEquals(SVG.length, head.headers().firstValueAsLong("Content-Length").orElse(-1));
+        assertEquals(0, head.body().length);
+    }
+
+    @Test
+    void distinguishesUnknownUserFromUpstreamFailure() throws Exception {
+        start(user -> CompletableFuture.failedFuture(new IllegalStateException("사용자 정보 요청 실패: 500")));
+
+        assertEquals(404, send(request("mallory").GET()).statusCode());
+        assertEquals(0, loads.get());
+        assertEquals(502, send(request("alice").GET()).statusCode());
+        assertEquals(1, loads.get());
+    }
+
+    private void start(Function<String, CompletableFuture<byte[]>> loader) throws IOException {
+        BadgeCache cache = new BadgeCache(counting(loader), HOUR, 10);
+        server = new BadgeServer(cache, Map.of("alice", "", "bob", ""), HOUR);
+        server.start(0, 2);
+    }
+
+    private Function<String, CompletableFuture<byte[]>> counting(Function<String, CompletableFuture<byte[]>> loader) {
+        return user -> {
+            loads.incrementAndGet();
+            return loader.apply(user);
+        };
+    }
+
+    private HttpRequest.Builder request(String user) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/badge/" + user + ".svg"));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] svg(String text) {
+        return ("<svg xmlns=\"http://www.w3.org/2000/svg\"><text>" + text + "</text></svg>")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
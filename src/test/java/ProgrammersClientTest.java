@@ -0,0 +1,340 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 HttpServer 를 프로그래머스 대신 띄워서 {@link ResilientSender} 의 재시도, 헤지 요청, 서킷 브레이커를 확인한다.
+ */
+class ProgrammersClientTest {
+
+    private static final byte[] RECORD = ("{\"skillCheck\":{\"level\":2},"
+            + "\"ranking\":{\"score\":1234,\"rank\":7890},"
+            + "\"codingTest\":{\"solved\":56}}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private URI baseUri;
+    private ProgrammersClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void retriesServiceUnavailable() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                respond(exchange, 503, null);
+            } else {
+                respond(exchange, 200, RECORD);
+            }
+        });
+        client = client(config(3, Duration.ofSeconds(2), false, 5));
+
+        BadgeStats stats = client.fetchUserRecord("a=b").join();
+
+        assertEquals(new BadgeStats(2, 1234, 56, 7890), stats);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void waitsForRetryAfter() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            if (requests.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 429, null);
+            } else {
+                respond(exchange, 200, RECORD);
+            }
+        });
+        client = client(config(3, Duration.ofSeconds(2), false, 5));
+
+        long start = System.nanoTime();
+        client.fetchUserRecord("a=b").join();
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1), "Retry-After 보다 먼저 재시도했습니다.");
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void givesUpWhenRetryAfterExceedsMaxDelay() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "120");
+            respond(exchange, 429, null);
+        });
+        client = client(config(3, Duration.ofSeconds(2), false, 5));
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.fetchUserRecord("a=b").join());
+
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().startsWith("사용자 정보 요청 실패"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void doesNotRetrySignInOnServerError() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(ProgrammersClient.SIGN_IN_PATH, exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 500, null);
+        });
+        client = client(config(3, Duration.ofMillis(100), false, 5));
+
+        CompletionException error = assertThrows(CompletionException.class, () -> client.signIn("id", "pw").join());
+
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void signInServerErrorsOpenCircuit() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext(ProgrammersClient.SIGN_IN_PATH, exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 500, null);
+        });
+        client = client(config(3, Duration.ofMillis(100), false, 2));
+
+        assertThrows(CompletionException.class, () -> client.signIn("id", "pw").join());
+        assertThrows(CompletionException.class, () -> client.signIn("id", "pw").join());
+        CompletionException open = assertThrows(CompletionException.class, () -> client.signIn("id", "pw").join());
+
+        assertInstanceOf(CircuitBreaker.OpenException.class, open.getCause());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void signInIgnoresDeletedCookies() {
+        server.createContext(ProgrammersClient.SIGN_IN_PATH, exchange -> {
+            exchange.getResponseHeaders().add("Set-Cookie", "session=abc; Path=/; Max-Age=3600");
+            exchange.getResponseHeaders().add("Set-Cookie", "old_session=; Path=/; Max-Age=0");
+            respond(exchange, 200, null);
+        });
+        client = client(config(0, Duration.ofMillis(100), false, 5));
+
+        Instant before = Instant.now();
+        SessionStore.Session session = client.signIn("id", "pw").join();
+
+        assertEquals("session=abc", session.getCookieHeader());
+        assertFalse(session.getExpiresAt().isBefore(before.plusSeconds(3600)));
+    }
+
+    @Test
+    void doesNotRetrySignInOnTimeout() {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext(ProgrammersClient.SIGN_IN_PATH, exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, null);
+        });
+        UpstreamConfig config = new UpstreamConfig(Duration.ofSeconds(1), Duration.ofMillis(200),
+                3, Duration.ofMillis(10), Duration.ofMillis(100), false, 5, Duration.ofSeconds(30));
+        client = client(config);
+
+        try {
+            CompletionException error = assertThrows(CompletionException.class, () -> client.signIn("id", "pw").join());
+            assertInstanceOf(HttpTimeoutException.class, error.getCause());
+            // 재시도했다면 모든 시도가 끝난 뒤에야 실패하므로, 실패한 시점에 이미 다음 요청들이 도착해 있다.
+            assertEquals(1, requests.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void failsWhenBodyStallsAfterHeaders() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            try {
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream body = exchange.getResponseBody();
+                body.write("{\"skillCheck\":{\"level\":".getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        UpstreamConfig config = new UpstreamConfig(Duration.ofSeconds(1), Duration.ofMillis(200),
+                0, Duration.ofMillis(10), Duration.ofMillis(100), false, 5, Duration.ofSeconds(30));
+        client = client(config);
+
+        try {
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> client.fetchUserRecord("a=b").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, error.getCause());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void hedgesSlowRequestAfterEnoughSamplesAndClosesLoser() throws Exception {
+        int samples = 20;
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch releasePrimary = new CountDownLatch(1);
+        CountDownLatch loserClosed = new CountDownLatch(1);
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            if (requests.incrementAndGet() != samples + 1) {
+                respond(exchange, 200, RECORD);
+                return;
+            }
+            // 헤지 대상이 될 느린 첫 요청: 테스트가 풀어 줄 때까지 헤더를 보내지 않고, 그 뒤로는 클라이언트가 본문을 닫을 때까지 계속 쓴다.
+            try {
+                releasePrimary.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream body = exchange.getResponseBody();
+                byte[] chunk = new byte[64 * 1024];
+                for (int i = 0; i < 1024; i++) {
+                    body.write(chunk);
+                    body.flush();
+                }
+            } catch (IOException e) {
+                loserClosed.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        ResilientSender sender = ResilientSender.create(null, config(0, Duration.ofMillis(100), true, 5));
+        client = new ProgrammersClient(sender, baseUri);
+
+        for (int i = 0; i < samples; i++) {
+            client.fetchUserRecord("a=b").join();
+        }
+        assertEquals(samples, requests.get(), "표본이 모이기 전에 헤지 요청을 보냈습니다.");
+        // 지연 시간 기록은 응답을 받은 스레드에서 따로 하므로 마지막 표본이 기록될 때까지 기다린다.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sender.hedgeSamples() < samples && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(samples, sender.hedgeSamples());
+
+        try {
+            // 첫 요청은 풀어 주기 전까지 응답하지 않으므로, 여기서 결과가 나왔다면 헤지 요청의 응답이다.
+            BadgeStats stats = client.fetchUserRecord("a=b").get(5, TimeUnit.SECONDS);
+            assertEquals(new BadgeStats(2, 1234, 56, 7890), stats);
+            assertEquals(samples + 2, requests.get());
+        } finally {
+            releasePrimary.countDown();
+        }
+        assertTrue(loserClosed.await(5, TimeUnit.SECONDS), "늦게 온 응답의 본문을 닫지 않았습니다.");
+    }
+
+    @Test
+    void circuitOpensAfterFailedRequestsAndHalfOpensAfterDelay() {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger status = new AtomicInteger(500);
+        server.createContext(ProgrammersClient.USER_RECORD_PATH, exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, status.get(), status.get() == 200 ? RECORD : null);
+        });
+        UpstreamConfig config = new UpstreamConfig(Duration.ofSeconds(1), Duration.ofSeconds(2),
+                2, Duration.ofMillis(1), Duration.ofMillis(10), false, 2, Duration.ofMillis(300));
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(2, config.getCircuitOpenDuration(), now::get);
+        client = new ProgrammersClient(new ResilientSender(HttpClient.newHttpClient(), null, config, breaker), baseUri);
+
+        // 재시도는 브레이커에 한 번으로 세므로 첫 요청은 재시도를 모두 마치고 서버 응답으로 실패한다.
+        CompletionException first = assertThrows(CompletionException.class, () -> client.fetchUserRecord("a=b").join());
+        assertTrue(first.getCause().getMessage().startsWith("사용자 정보 요청 실패"));
+        assertEquals(3, requests.get());
+
+        assertThrows(CompletionException.class, () -> client.fetchUserRecord("a=b").join());
+        assertEquals(6, requests.get());
+
+        CompletionException open = assertThrows(CompletionException.class, () -> client.fetchUserRecord("a=b").join());
+        assertInstanceOf(CircuitBreaker.OpenException.class, open.getCause());
+        assertEquals(6, requests.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(299));
+        assertThrows(CompletionException.class, () -> client.fetchUserRecord("a=b").join());
+        assertEquals(6, requests.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        status.set(200);
+        CompletableFuture<BadgeStats> trial = client.fetchUserRecord("a=b");
+        assertEquals(new BadgeStats(2, 1234, 56, 7890), trial.join());
+        assertEquals(7, requests.get());
+
+        client.fetchUserRecord("a=b").join();
+        assertEquals(8, requests.get());
+    }
+
+    private ProgrammersClient client(UpstreamConfig config) {
+        return new ProgrammersClient(ResilientSender.create(null, config), baseUri);
+    }
+
+    private static UpstreamConfig config(int maxRetries, Duration maxDelay, boolean hedging, int circuitFailures) {
+        return new UpstreamConfig(Duration.ofSeconds(1), Duration.ofSeconds(5),
+                maxRetries, Duration.ofMillis(10), maxDelay, hedging, circuitFailures, Duration.ofSeconds(30));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try {
+            exchange.sendResponseHeaders(status, body == null ? -1 : body.length);
+            if (body != null) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
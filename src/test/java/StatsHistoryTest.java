@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link StatsHistory} 를 닫고 다시 열 때 인덱스 파일로 사용자별 기록을 복원하는지 확인한다.
+ */
+class StatsHistoryTest {
+
+    private static final long ALICE = StatsHistory.userKey("alice");
+    private static final long BOB = StatsHistory.userKey("bob");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensFromIndexFile() throws IOException {
+        Path file = directory.resolve("history.bin");
+        try (StatsHistory history = StatsHistory.open(file)) {
+            appendDays(history, 0, 100);
+        }
+        assertTrue(Files.exists(directory.resolve("history.bin.idx")));
+
+        try (StatsHistory history = StatsHistory.open(file)) {
+            assertEquals(200, history.size());
+            assertEquals(times(0, 100), scan(history, ALICE));
+            assertEquals(times(0, 100), scan(history, BOB));
+            appendDays(history, 100, 110);
+        }
+        try (StatsHistory history = StatsHistory.open(file)) {
+            assertEquals(times(0, 110), scan(history, ALICE));
+        }
+    }
+
+    @Test
+    void catchesUpRecordsAddedAfterIndex() throws IOException {
+        Path file = directory.resolve("history.bin");
+        Path index = directory.resolve("history.bin.idx");
+        Path staleIndex = directory.resolve("stale.idx");
+        try (StatsHistory history = StatsHistory.open(file)) {
+            appendDays(history, 0, 50);
+        }
+        Files.copy(index, staleIndex);
+        try (StatsHistory history = StatsHistory.open(file)) {
+            appendDays(history, 50, 80);
+        }
+
+        // 인덱스를 쓰기 전에 중단된 경우처럼 앞선 인덱스만 남긴다.
+        Files.move(staleIndex, index, StandardCopyOption.REPLACE_EXISTING);
+        try (StatsHistory history = StatsHistory.open(file)) {
+            assertEquals(times(0, 80), scan(history, ALICE));
+            assertEquals(times(0, 80), scan(history, BOB));
+        }
+    }
+
+    @Test
+    void rebuildsIndexThatDoesNotMatch() throws IOException {
+        Path file = directory.resolve("history.bin");
+        Path other = directory.resolve("other.bin");
+        try (StatsHistory history = StatsHistory.open(other)) {
+            appendDays(history, 1000, 1010);
+        }
+        try (StatsHistory history = StatsHistory.open(file)) {
+            appendDays(history, 0, 30);
+        }
+        Files.copy(directory.resolve("other.bin.idx"), directory.resolve("history.bin.idx"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        try (StatsHistory history = StatsHistory.open(file)) {
+            assertEquals(times(0, 30), scan(history, ALICE));
+        }
+        Files.write(directory.resolve("history.bin.idx"), new byte[]{1, 2, 3});
+        try (StatsHistory history = StatsHistory.open(file)) {
+            assertEquals(times(0, 30), scan(history, BOB));
+        }
+    }
+
+    @Test
+    void clampsEarlierTimeToLastRecord() throws IOException {
+        try (StatsHistory history = StatsHistory.open(directory.resolve("history.bin"))) {
+            Instant now = Instant.ofEpochSecond(1_000_000);
+            assertTrue(history.append(ALICE, now, new BadgeStats(1, 100, 10, 500)));
+            assertTrue(history.append(ALICE, now.minusSeconds(60), new BadgeStats(1, 110, 11, 490)));
+            assertFalse(history.append(ALICE, now.minusSeconds(60), new BadgeStats(1, 110, 11, 490)));
+
+            assertEquals(List.of(now.getEpochSecond(), now.getEpochSecond()), scan(history, ALICE));
+            long[] score = new long[1];
+            assertTrue(history.valueAt(ALICE, now.getEpochSecond(), (time, level, s, solved, rank) -> score[0] = s));
+            assertEquals(110, score[0]);
+        }
+    }
+
+    /**
+     * 두 사용자의 기록을 하루 간격으로 번갈아 추가한다. 값은 날마다 바뀐다.
+     */
+    private static void appendDays(StatsHistory history, int fromDay, int toDay) throws IOException {
+        for (int day = fromDay; day < toDay; day++) {
+            Instant time = Instant.ofEpochSecond(day * 86_400L);
+            history.append(ALICE, time, new BadgeStats(1, day, day, 1000 - day));
+            history.append(BOB, time, new BadgeStats(2, day * 2L, day, 2000 - day));
+        }
+    }
+
+    private static List<Long> times(int fromDay, int toDay) {
+        List<Long> times = new ArrayList<>();
+        for (int day = fromDay; day < toDay; day++) {
+            times.add(day * 86_400L);
+        }
+        return times;
+    }
+
+    private static List<Long> scan(StatsHistory history, long userKey) {
+        List<Long> times = new ArrayList<>();
+        history.scan(userKey, Long.MIN_VALUE, Long.MAX_VALUE, (time, level, score, solved, rank) -> times.add(time));
+        return times;
+    }
+}
@@ -0,0 +1,203 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SvgMinifier} 가 줄인 템플릿이 원래 템플릿과 같은 그림을 그리는지 확인한다.
+ * path 는 절대 좌표로 풀어서 반올림 오차 안에 있는지 비교한다.
+ */
+class SvgMinifierTest {
+
+    private static final Pattern PATH_DATA = Pattern.compile("<path[^>]* d=\"([^\"]*)\"");
+    private static final Pattern PATH_TOKEN = Pattern.compile(
+            "[MmLlHhVvCcSsQqTtZz]|[-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+    private static final Pattern FORMAT_SPECIFIER = Pattern.compile("%[%s]");
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3})
+    void pathCoordinatesStayWithinRounding(int precision) {
+        String minified = SvgMinifier.minify(BadgeTemplate.SVG_FORMAT, precision);
+        List<String> original = pathData(BadgeTemplate.SVG_FORMAT);
+        List<String> rewritten = pathData(minified);
+        assertEquals(original.size(), rewritten.size(), "path 수가 다릅니다.");
+
+        double tolerance = 0.5 * Math.pow(10, -precision) + 1e-9;
+        for (int i = 0; i < original.size(); i++) {
+            List<Segment> expected = absoluteSegments(original.get(i));
+            List<Segment> actual = absoluteSegments(rewritten.get(i));
+            assertEquals(expected.size(), actual.size(), "path " + i + " 의 명령 수가 다릅니다.");
+            for (int j = 0; j < expected.size(); j++) {
+                Segment e = expected.get(j);
+                Segment a = actual.get(j);
+                assertEquals(e.command, a.command, "path " + i + " 명령 " + j);
+                assertEquals(e.values.length, a.values.length, "path " + i + " 명령 " + j);
+                for (int k = 0; k < e.values.length; k++) {
+                    assertEquals(e.values[k], a.values[k], tolerance,
+                            "path " + i + " 명령 " + j + " 의 " + k + " 번째 좌표");
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3})
+    void minifiedTemplateIsWellFormedXml(int precision) throws Exception {
+        String svg = String.format(SvgMinifier.minify(BadgeTemplate.SVG_FORMAT, precision), "2", "1234", "56", "7890");
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        assertEquals("svg", factory.newDocumentBuilder()
+                .parse(new InputSource(new StringReader(svg))).getDocumentElement().getLocalName());
+    }
+
+    @Test
+    void keepsFormatSpecifiersInOrder() {
+        assertEquals(formatSpecifiers(BadgeTemplate.SVG_FORMAT),
+                formatSpecifiers(SvgMinifier.minify(BadgeTemplate.SVG_FORMAT, 1)));
+
+        String template = "<svg xmlns=\"http://www.w3.org/2000/svg\">"
+                + "<style>@keyframes fade { 0%% { opacity: 0; } 100%% { opacity: 1; } }"
+                + " .value { font-size: 20px; }</style>"
+                + "<text class=\"value\" style=\"opacity: 1\">%s</text>"
+                + "<text class=\"value\">%s%%</text>"
+                + "</svg>";
+        String minified = SvgMinifier.minify(template, 1);
+        assertEquals(List.of("%%", "%%", "%s", "%s", "%%"), formatSpecifiers(minified));
+        assertTrue(String.format(minified, "a", "b").contains(">b%</text>"));
+    }
+
+    @Test
+    void writesShortestNumbers() {
+        assertEquals(".5", SvgMinifier.number(5, 1));
+        assertEquals("-.5", SvgMinifier.number(-5, 1));
+        assertEquals("1.5", SvgMinifier.number(150, 2));
+        assertEquals("0", SvgMinifier.number(0, 2));
+        assertEquals("-12", SvgMinifier.number(-12, 0));
+    }
+
+    @Test
+    void choosesShorterRelativeCoordinates() {
+        assertEquals("M100.5 200l.5.5 9 0v-10z",
+                SvgMinifier.minifyPath("M 100.50 200.00 L 101.00 200.50 L 110 200.5 V 190.5 Z", 1));
+        assertEquals("M1 1 2 2", SvgMinifier.minifyPath("M1 1L2 2", 0));
+    }
+
+    private static List<String> pathData(String svg) {
+        List<String> paths = new ArrayList<>();
+        Matcher matcher = PATH_DATA.matcher(svg);
+        while (matcher.find()) {
+            paths.add(matcher.group(1));
+        }
+        return paths;
+    }
+
+    private static List<String> formatSpecifiers(String template) {
+        List<String> specifiers = new ArrayList<>();
+        Matcher matcher = FORMAT_SPECIFIER.matcher(template);
+        while (matcher.find()) {
+            specifiers.add(matcher.group());
+        }
+        return specifiers;
+    }
+
+    /**
+     * path 데이터를 명령마다 대문자 명령과 절대 좌표로 푼다. 명령 없이 이어지는 좌표는 앞 명령(M 뒤는 L)으로 본다.
+     */
+    private static List<Segment> absoluteSegments(String data) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = PATH_TOKEN.matcher(data);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        double x = 0;
+        double y = 0;
+        double startX = 0;
+        double startY = 0;
+        char command = 0;
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+            if (Character.isLetter(token.charAt(0))) {
+                command = token.charAt(0);
+                i++;
+            }
+            boolean relative = Character.isLowerCase(command);
+            char upper = Character.toUpperCase(command);
+            if (upper == 'Z') {
+                segments.add(new Segment('Z', new double[0]));
+                x = startX;
+                y = startY;
+                continue;
+            }
+
+            int count = parameterCount(upper);
+            double[] values = new double[count];
+            for (int k = 0; k < count; k++) {
+                boolean isY = upper == 'V' || (upper != 'H' && k % 2 == 1);
+                values[k] = Double.parseDouble(tokens.get(i++)) + (relative ? (isY ? y : x) : 0);
+            }
+            segments.add(new Segment(upper, values));
+
+            if (upper == 'H') {
+                x = values[0];
+            } else if (upper == 'V') {
+                y = values[0];
+            } else {
+                x = values[count - 2];
+                y = values[count - 1];
+            }
+            if (upper == 'M') {
+                startX = x;
+                startY = y;
+                command = relative ? 'l' : 'L';
+            }
+        }
+        return segments;
+    }
+
+    private static int parameterCount(char command) {
+        switch (command) {
+            case 'H':
+            case 'V':
+                return 1;
+            case 'M':
+            case 'L':
+            case 'T':
+                return 2;
+            case 'S':
+            case 'Q':
+                return 4;
+            case 'C':
+                return 6;
+            default:
+                throw new IllegalArgumentException("지원하지 않는 path 명령: " + command);
+        }
+    }
+
+    private static final class Segment {
+
+        final char command;
+        final double[] values;
+
+        Segment(char command, double[] values) {
+            this.command = command;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link UserRecordParser} 가 필드 순서와 관계없이 네 값을 읽고, 값이 잘못되면 어떤 필드인지 알려주는지 확인한다.
+ */
+class UserRecordParserTest {
+
+    private final UserRecordParser parser = new UserRecordParser();
+
+    @Test
+    void readsFieldsInAnyOrder() throws IOException {
+        BadgeStats stats = parse("{\"codingTest\":{\"solved\":56},"
+                + "\"ranking\":{\"rank\":7890,\"score\":1234},"
+                + "\"skillCheck\":{\"level\":2}}");
+
+        assertEquals(new BadgeStats(2, 1234, 56, 7890), stats);
+    }
+
+    @Test
+    void skipsUnrelatedNestedValues() throws IOException {
+        BadgeStats stats = parse("{\"user\":{\"name\":\"x\",\"skillCheck\":{\"level\":9},\"tags\":[1,{\"a\":[]}]},"
+                + "\"skillCheck\":{\"history\":[{\"level\":7}],\"level\":2,\"meta\":{\"level\":8}},"
+                + "\"ranking\":{\"score\":1234,\"top\":{\"rank\":1},\"rank\":7890},"
+                + "\"badges\":[{\"codingTest\":{\"solved\":1}}],"
+                + "\"codingTest\":{\"solved\":56,\"languages\":[\"java\"]}}");
+
+        assertEquals(new BadgeStats(2, 1234, 56, 7890), stats);
+    }
+
+    @Test
+    void readsNumericStrings() throws IOException {
+        BadgeStats stats = parse("{\"skillCheck\":{\"level\":\" 2 \"},\"ranking\":{\"score\":\"1234\",\"rank\":\"7890\"},"
+                + "\"codingTest\":{\"solved\":\"56\"}}");
+
+        assertEquals(new BadgeStats(2, 1234, 56, 7890), stats);
+    }
+
+    @Test
+    void namesMissingFields() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":1234}}"));
+
+        assertEquals("사용자 정보 응답에 값이 없습니다: codingTest.solved ranking.rank", error.getMessage());
+    }
+
+    @Test
+    void namesNullField() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":null},\"ranking\":{\"score\":1234,\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":56}}"));
+
+        assertEquals("사용자 정보 응답에 값이 없습니다: skillCheck.level", error.getMessage());
+    }
+
+    @Test
+    void rejectsNonNumericString() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":\"많음\",\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":56}}"));
+
+        assertTrue(error.getMessage().startsWith("ranking.score 값이 숫자가 아닙니다"), error.getMessage());
+    }
+
+    @Test
+    void rejectsFloat() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":1234.5,\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":56}}"));
+
+        assertEquals("ranking.score 값이 정수가 아닙니다: 1234.5", error.getMessage());
+    }
+
+    @Test
+    void rejectsValuesOutOfRange() {
+        IllegalStateException level = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2147483648},\"ranking\":{\"score\":1234,\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":56}}"));
+        assertEquals("skillCheck.level 값이 범위를 벗어났습니다: 2147483648", level.getMessage());
+
+        IllegalStateException solved = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":1234,\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":\"-2147483649\"}}"));
+        assertEquals("codingTest.solved 값이 범위를 벗어났습니다: -2147483649", solved.getMessage());
+
+        IllegalStateException score = assertThrows(IllegalStateException.class,
+                () -> parse("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":99999999999999999999,\"rank\":7890},"
+                        + "\"codingTest\":{\"solved\":56}}"));
+        assertEquals("ranking.score 값이 범위를 벗어났습니다: 99999999999999999999", score.getMessage());
+    }
+
+    @Test
+    void rejectsNonObjectResponse() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> parse("[]"));
+
+        assertEquals("사용자 정보 응답이 JSON 객체가 아닙니다.", error.getMessage());
+    }
+
+    @Test
+    void streamAndByteArrayGiveSameResult() throws IOException {
+        byte[] body = ("{\"skillCheck\":{\"level\":2},\"ranking\":{\"score\":1234,\"rank\":7890},"
+                + "\"codingTest\":{\"solved\":56}}").getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(parser.parse(body), parser.parse(new ByteArrayInputStream(body)));
+    }
+
+    private BadgeStats parse(String json) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}